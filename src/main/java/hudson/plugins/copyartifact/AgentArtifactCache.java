@@ -0,0 +1,500 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.model.Jenkins;
+import jenkins.util.VirtualFile;
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Artifacts staged in advance in the root directory of agents by {@link ArtifactPreStager}.
+ *
+ * Artifacts of a build are staged in {@code copyartifact-cache/<digest of the job name>/<build number>},
+ * and only the latest staged build of each job is kept.
+ * Builds not used for {@link #MAX_AGE_DAYS} are removed, and least recently used builds are removed
+ * to keep the total size under {@link #MAX_SIZE}.
+ * Builds of deleted or renamed jobs are removed from agents online at that time.
+ * As builds running on the agent can write there,
+ * a staged file is used only if its size and timestamp match the artifact
+ * and its contents match the digest calculated on the controller when it was staged.
+ */
+final class AgentArtifactCache {
+    static final String DIR = "copyartifact-cache";
+
+    private static final Logger LOGGER = Logger.getLogger(AgentArtifactCache.class.getName());
+
+    /**
+     * The maximum total size of artifacts staged in each agent in bytes, or 0 for no limit.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ long MAX_SIZE = Long.getLong(CopyArtifact.class.getName() + ".agentCacheMaxSize", 10L * 1024 * 1024 * 1024);
+
+    /**
+     * Days to keep staged builds which are not used, or 0 to keep them until exceeding {@link #MAX_SIZE}.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ int MAX_AGE_DAYS = Integer.getInteger(CopyArtifact.class.getName() + ".agentCacheMaxAge", 7);
+
+    /**
+     * Digests of artifacts of the latest staged build of each job, by the full name of the job.
+     * Artifacts staged before the controller restarted are not used, as their digests are lost.
+     */
+    private static final Map<String, StagedBuild> STAGED = new HashMap<>();
+
+    private AgentArtifactCache() {
+    }
+
+    /**
+     * @param nodeRoot the root directory of the agent
+     * @param job the full name of the job artifacts are copied from
+     * @param number the number of the build artifacts are copied from
+     * @return the directory artifacts of the build are staged in.
+     */
+    @Nonnull
+    static FilePath getDirectory(@Nonnull FilePath nodeRoot, @Nonnull String job, int number) {
+        return nodeRoot.child(DIR).child(Util.getDigestOf(job)).child(Integer.toString(number));
+    }
+
+    @Nonnull
+    private static synchronized StagedBuild getStagedBuild(@Nonnull String job, int number) {
+        StagedBuild build = STAGED.get(job);
+        if (build == null || build.number != number) {
+            build = new StagedBuild(number);
+            STAGED.put(job, build);
+        }
+        return build;
+    }
+
+    @CheckForNull
+    private static synchronized StagedBuild findStagedBuild(@Nonnull String job, int number) {
+        StagedBuild build = STAGED.get(job);
+        return (build != null && build.number == number) ? build : null;
+    }
+
+    /**
+     * Stages artifacts of a build in an agent, skipping files already staged.
+     * Other builds of the job staged in the agent are removed,
+     * and so are other builds not to exceed {@link #MAX_SIZE}.
+     * Nothing is staged if the artifacts alone exceed it.
+     *
+     * @param nodeRoot the root directory of the agent
+     * @param job the full name of the job artifacts are copied from
+     * @param number the number of the build artifacts are copied from
+     * @param srcDir the artifacts of the build
+     * @param entries paths of artifacts to stage
+     * @return the number of staged files.
+     */
+    static int stage(@Nonnull FilePath nodeRoot, @Nonnull String job, int number, @Nonnull VirtualFile srcDir, @Nonnull Collection<String> entries) throws IOException, InterruptedException {
+        FilePath dir = getDirectory(nodeRoot, job, number);
+        StagedBuild build = getStagedBuild(job, number);
+        List<Item> items = new ArrayList<>();
+        long size = 0;
+        for (String entry : entries) {
+            VirtualFile s = srcDir.child(entry);
+            if (s.readLink() != null) {
+                continue;
+            }
+            items.add(new Item(entry, null, s.length(), s.lastModified(), s.mode(), null));
+            size += s.length();
+        }
+        if (MAX_SIZE > 0 && size > MAX_SIZE) {
+            LOGGER.log(Level.FINE, "Not staging {0} bytes of {1} #{2}", new Object[] {size, job, number});
+            return 0;
+        }
+        nodeRoot.child(DIR).act(new Prune(dir.getParent().getName() + "/" + dir.getName(), size, MAX_SIZE, TimeUnit.DAYS.toMillis(MAX_AGE_DAYS)));
+        Set<String> staged = dir.act(new Lookup(items));
+        int count = 0;
+        for (Item item : items) {
+            VirtualFile s = srcDir.child(item.entry);
+            if (staged.contains(item.entry)) {
+                if (!build.digests.containsKey(item.entry)) {
+                    // staged before the controller restarted.
+                    try (InputStream in = s.open()) {
+                        build.digests.put(item.entry, Util.getDigestOf(in));
+                    }
+                }
+                continue;
+            }
+            FilePath d = dir.child(item.entry);
+            MessageDigest md5 = TransferContext.get().md5();
+            try (InputStream in = new DigestInputStream(s.open(), md5)) {
+                d.copyFrom(in);
+            }
+            build.digests.put(item.entry, Util.toHexString(md5.digest()));
+            if (item.mode != -1) {
+                d.chmod(item.mode);
+            }
+            // the timestamp tells the file is complete.
+            d.touch(item.lastModified);
+            ++count;
+        }
+        return count;
+    }
+
+    /**
+     * Copies staged artifacts to their targets on the agent, in a single call.
+     * Artifacts whose staged files do not match are not copied, and should be copied from the controller.
+     *
+     * @param targetDir the directory artifacts are copied to
+     * @param srcDir the artifacts of the build
+     * @param list paths of artifacts to copy
+     * @param session the state of the copy
+     * @return paths of copied artifacts to their digests, or {@code null} for entries without digests.
+     */
+    @Nonnull
+    static Map<String, String> restore(@Nonnull FilePath targetDir, @Nonnull VirtualFile srcDir, @Nonnull Collection<String> list, @Nonnull CopySession session) throws IOException, InterruptedException {
+        CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+        String source = session.getSource();
+        if (config == null || !config.isPreStageArtifacts() || source == null || !targetDir.isRemote()) {
+            return new HashMap<>();
+        }
+        int i = source.lastIndexOf('#');
+        Computer c = targetDir.toComputer();
+        Node node = c != null ? c.getNode() : null;
+        FilePath nodeRoot = node != null ? node.getRootPath() : null;
+        if (i < 0 || nodeRoot == null) {
+            return new HashMap<>();
+        }
+        String job = source.substring(0, i);
+        int number = Integer.parseInt(source.substring(i + 1));
+        StagedBuild build = findStagedBuild(job, number);
+        if (build == null) {
+            return new HashMap<>();
+        }
+        List<Item> items = new ArrayList<>();
+        for (String entry : list) {
+            String digest = build.digests.get(entry);
+            FilePath d = new FilePath(targetDir, session.isFlatten() ? entry.replaceFirst(".+/", "") : entry);
+            if (digest == null || (session.isExtract() && ArchiveExtractor.isArchive(d.getName()))) {
+                continue;
+            }
+            VirtualFile s = srcDir.child(entry);
+            items.add(new Item(entry, d.getRemote(), s.length(), s.lastModified(), s.mode(), digest));
+        }
+        if (items.isEmpty()) {
+            return new HashMap<>();
+        }
+        return getDirectory(nodeRoot, job, number).act(new Restore(items, session.isFingerprint()));
+    }
+
+    /**
+     * Removes artifacts staged from jobs, and from jobs in them.
+     * Agents offline at this time remove them when they are not used for {@link #MAX_AGE_DAYS}.
+     *
+     * @param jobs the full names of deleted or renamed jobs and folders
+     */
+    static void forget(@Nonnull Collection<String> jobs) {
+        Set<String> names = new HashSet<>(jobs);
+        synchronized (AgentArtifactCache.class) {
+            for (String staged : new ArrayList<>(STAGED.keySet())) {
+                for (String job : jobs) {
+                    if (staged.equals(job) || staged.startsWith(job + "/")) {
+                        STAGED.remove(staged);
+                        names.add(staged);
+                        break;
+                    }
+                }
+            }
+        }
+        if (names.isEmpty()) {
+            return;
+        }
+        List<String> dirs = new ArrayList<>();
+        for (String name : names) {
+            dirs.add(Util.getDigestOf(name));
+        }
+        Jenkins jenkins = Jenkins.get();
+        for (Computer c : jenkins.getComputers()) {
+            Node node = c.getNode();
+            FilePath nodeRoot = (node != null && node != jenkins) ? node.getRootPath() : null;
+            if (nodeRoot == null) {
+                continue;
+            }
+            Computer.threadPoolForRemoting.submit(() -> {
+                try {
+                    nodeRoot.child(DIR).act(new Remove(dirs));
+                } catch (IOException x) {
+                    LOGGER.log(Level.FINE, "Failed to remove staged artifacts in " + node.getNodeName(), x);
+                } catch (InterruptedException x) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+    }
+
+    private static boolean isStaged(File f, Item item) {
+        // some file systems keep timestamps only in seconds.
+        return f.isFile() && f.length() == item.length && f.lastModified() / 1000 == item.lastModified / 1000;
+    }
+
+    private static final class StagedBuild {
+        private final int number;
+        private final Map<String, String> digests = new ConcurrentHashMap<>();
+
+        StagedBuild(int number) {
+            this.number = number;
+        }
+    }
+
+    private static final class Item implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String entry;
+        @CheckForNull
+        private final String target;
+        private final long length;
+        private final long lastModified;
+        private final int mode;
+        @CheckForNull
+        private final String digest;
+
+        Item(String entry, @CheckForNull String target, long length, long lastModified, int mode, @CheckForNull String digest) {
+            this.entry = entry;
+            this.target = target;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.mode = mode;
+            this.digest = digest;
+        }
+    }
+
+    private static final class Lookup extends MasterToSlaveFileCallable<Set<String>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Item> items;
+
+        Lookup(List<Item> items) {
+            this.items = items;
+        }
+
+        @Override
+        public Set<String> invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            Set<String> staged = new HashSet<>();
+            for (Item item : items) {
+                if (isStaged(new File(dir, item.entry), item)) {
+                    staged.add(item.entry);
+                }
+            }
+            return staged;
+        }
+    }
+
+    /**
+     * Removes staged builds in the cache directory of an agent before staging a build.
+     */
+    private static final class Prune extends MasterToSlaveFileCallable<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final String keep;
+        private final long size;
+        private final long maxSize;
+        private final long maxAge;
+
+        /**
+         * @param keep the path of the build to stage, relative to the cache directory
+         * @param size bytes of the build to stage
+         * @param maxSize the maximum total size in bytes, or 0 for no limit
+         * @param maxAge milliseconds to keep builds not used, or 0 for no limit
+         */
+        Prune(String keep, long size, long maxSize, long maxAge) {
+            this.keep = keep;
+            this.size = size;
+            this.maxSize = maxSize;
+            this.maxAge = maxAge;
+        }
+
+        @Override
+        public Void invoke(File cacheDir, VirtualChannel channel) throws IOException, InterruptedException {
+            File keepDir = new File(cacheDir, keep);
+            long now = System.currentTimeMillis();
+            List<File> others = new ArrayList<>();
+            File[] jobs = cacheDir.listFiles();
+            if (jobs != null) {
+                for (File job : jobs) {
+                    File[] builds = job.listFiles();
+                    if (builds == null) {
+                        continue;
+                    }
+                    for (File build : builds) {
+                        if (build.equals(keepDir)) {
+                            continue;
+                        }
+                        // the time a build is last used is recorded as the timestamp of the directory.
+                        if (job.equals(keepDir.getParentFile()) || (maxAge > 0 && now - build.lastModified() > maxAge)) {
+                            Util.deleteRecursive(build);
+                        } else {
+                            others.add(build);
+                        }
+                    }
+                }
+            }
+            if (maxSize > 0) {
+                long total = size;
+                Map<File, Long> sizes = new HashMap<>();
+                for (File build : others) {
+                    long s = FileUtils.sizeOfDirectory(build);
+                    sizes.put(build, s);
+                    total += s;
+                }
+                others.sort(Comparator.comparingLong(File::lastModified));
+                for (File build : others) {
+                    if (total <= maxSize) {
+                        break;
+                    }
+                    Util.deleteRecursive(build);
+                    total -= sizes.get(build);
+                }
+            }
+            if (jobs != null) {
+                for (File job : jobs) {
+                    String[] builds = job.list();
+                    if (builds != null && builds.length == 0 && !job.equals(keepDir.getParentFile())) {
+                        Util.deleteFile(job);
+                    }
+                }
+            }
+            hudson.util.IOUtils.mkdirs(keepDir);
+            markUsed(keepDir);
+            return null;
+        }
+    }
+
+    /**
+     * Removes staged builds of jobs.
+     */
+    private static final class Remove extends MasterToSlaveFileCallable<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> jobDirs;
+
+        Remove(List<String> jobDirs) {
+            this.jobDirs = jobDirs;
+        }
+
+        @Override
+        public Void invoke(File cacheDir, VirtualChannel channel) throws IOException, InterruptedException {
+            for (String jobDir : jobDirs) {
+                Util.deleteRecursive(new File(cacheDir, jobDir));
+            }
+            return null;
+        }
+    }
+
+    private static void markUsed(File buildDir) {
+        if (!buildDir.setLastModified(System.currentTimeMillis())) {
+            LOGGER.log(Level.FINE, "Failed to set the timestamp of {0}", buildDir);
+        }
+    }
+
+    private static final class Restore extends MasterToSlaveFileCallable<Map<String, String>> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Item> items;
+        private final boolean fingerprint;
+
+        Restore(List<Item> items, boolean fingerprint) {
+            this.items = items;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public Map<String, String> invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            Map<String, String> restored = new HashMap<>();
+            if (!dir.isDirectory()) {
+                return restored;
+            }
+            markUsed(dir);
+            TransferContext context = TransferContext.get();
+            for (Item item : items) {
+                File f = new File(dir, item.entry);
+                if (!isStaged(f, item)) {
+                    continue;
+                }
+                File d = new File(item.target);
+                File tmp = null;
+                try {
+                    hudson.util.IOUtils.mkdirs(d.getParentFile());
+                    tmp = File.createTempFile(".copyartifact", ".tmp", d.getParentFile());
+                    MessageDigest md5 = context.md5();
+                    try (InputStream in = Files.newInputStream(f.toPath()); OutputStream out = Files.newOutputStream(tmp.toPath())) {
+                        context.copy(in, out, md5);
+                    }
+                    String digest = Util.toHexString(md5.digest());
+                    if (!digest.equals(item.digest)) {
+                        // modified after staged. Copied from the controller instead.
+                        LOGGER.log(Level.WARNING, "Ignored staged {0} not matching the artifact", f);
+                        continue;
+                    }
+                    if (item.mode != -1) {
+                        new FilePath(tmp).chmod(item.mode);
+                    }
+                    if (!tmp.setLastModified(item.lastModified)) {
+                        LOGGER.log(Level.FINE, "Failed to set the timestamp of {0}", d);
+                    }
+                    Files.move(tmp.toPath(), d.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    tmp = null;
+                    restored.put(item.entry, fingerprint ? digest : null);
+                } catch (IOException x) {
+                    // e.g. removed to stage a newer build. Copied from the controller instead.
+                    LOGGER.log(Level.FINE, "Failed to copy staged " + f, x);
+                } finally {
+                    if (tmp != null && !tmp.delete() && tmp.exists()) {
+                        LOGGER.log(Level.FINE, "Failed to delete {0}", tmp);
+                    }
+                }
+            }
+            return restored;
+        }
+    }
+}
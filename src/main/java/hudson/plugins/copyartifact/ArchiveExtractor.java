@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.FilePath;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+
+/**
+ * Extracts a zip or tar archive streamed from the controller into the directory on the agent,
+ * without writing the archive itself.
+ *
+ * The stream is read to the end even after the last entry,
+ * so that the controller can calculate the digest of the whole archive.
+ */
+final class ArchiveExtractor extends MasterToSlaveFileCallable<Integer> {
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final InputStream in;
+    private final List<String> includes;
+
+    /**
+     * @param name the name of the archive, used to detect the format
+     * @param in the contents of the archive, usually a {@link hudson.remoting.RemoteInputStream}
+     * @param includes comma separated Ant patterns of entries to extract, or {@code null} to extract all entries
+     */
+    ArchiveExtractor(@Nonnull String name, @Nonnull InputStream in, @CheckForNull String includes) {
+        this.name = name;
+        this.in = in;
+        this.includes = new ArrayList<>();
+        if (includes != null) {
+            for (String pattern : includes.split(",")) {
+                pattern = pattern.trim().replace('\\', '/');
+                if (pattern.isEmpty()) {
+                    continue;
+                }
+                if (pattern.endsWith("/")) {
+                    pattern += "**";
+                }
+                this.includes.add(pattern);
+            }
+        }
+    }
+
+    /**
+     * @param name the file name
+     * @return whether the file can be extracted.
+     */
+    static boolean isArchive(@Nonnull String name) {
+        String lower = name.toLowerCase(Locale.ENGLISH);
+        return lower.endsWith(".zip") || lower.endsWith(".tar") || lower.endsWith(".tar.gz") || lower.endsWith(".tgz");
+    }
+
+    /**
+     * @return the number of extracted entries.
+     */
+    @Override
+    public Integer invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+        hudson.util.IOUtils.mkdirs(dir);
+        int count = 0;
+        String lower = name.toLowerCase(Locale.ENGLISH);
+        try (InputStream raw = in) {
+            if (lower.endsWith(".zip")) {
+                ZipInputStream zip = new ZipInputStream(raw);
+                for (ZipEntry e = zip.getNextEntry(); e != null; e = zip.getNextEntry()) {
+                    if (e.isDirectory() || !isIncluded(e.getName())) {
+                        continue;
+                    }
+                    File f = write(dir, e.getName(), zip);
+                    if (e.getTime() != -1) {
+                        f.setLastModified(e.getTime());
+                    }
+                    ++count;
+                }
+            } else {
+                TarArchiveInputStream tar = new TarArchiveInputStream(lower.endsWith(".tar") ? raw : new GZIPInputStream(raw));
+                for (TarArchiveEntry e = tar.getNextTarEntry(); e != null; e = tar.getNextTarEntry()) {
+                    if (!e.isFile() || !isIncluded(e.getName())) {
+                        continue;
+                    }
+                    File f = write(dir, e.getName(), tar);
+                    f.setLastModified(e.getModTime().getTime());
+                    int mode = e.getMode() & 0777;
+                    if (mode != 0) {
+                        new FilePath(f).chmod(mode);
+                    }
+                    ++count;
+                }
+            }
+            // read padding and the rest of the archive like zip central directory.
+            byte[] buf = new byte[8192];
+            while (raw.read(buf) >= 0) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        }
+        return count;
+    }
+
+    private boolean isIncluded(String entry) {
+        if (includes.isEmpty()) {
+            return true;
+        }
+        for (String pattern : includes) {
+            if (SelectorUtils.matchPath(pattern.replace('/', File.separatorChar), entry.replace('/', File.separatorChar))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static File write(File dir, String entry, InputStream is) throws IOException, InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        File f = new File(dir, entry);
+        String root = dir.getCanonicalPath() + File.separator;
+        if (!f.getCanonicalPath().startsWith(root)) {
+            throw new IOException(String.format("Entry %s is outside of %s", entry, dir));
+        }
+        hudson.util.IOUtils.mkdirs(f.getParentFile());
+        try (OutputStream os = new FileOutputStream(f)) {
+            TransferContext.get().copy(is, os, null);
+        }
+        return f;
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.AbortException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import javax.annotation.Nonnull;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Writes copied artifacts into a single zip or tar archive.
+ *
+ * The format is decided by the name of the archive.
+ */
+abstract class ArchivePacker implements Closeable {
+    private final Set<String> names = new HashSet<>();
+
+    /**
+     * @param name the name of the archive
+     * @return whether {@link #create(String, OutputStream)} supports the format.
+     */
+    static boolean isSupported(@Nonnull String name) {
+        String lower = name.toLowerCase(Locale.ENGLISH);
+        return lower.endsWith(".zip") || lower.endsWith(".tar") || lower.endsWith(".tar.gz") || lower.endsWith(".tgz");
+    }
+
+    /**
+     * @param name the name of the archive, like {@code artifacts.zip} or {@code artifacts.tar.gz}
+     * @param os where to write the archive
+     * @return the packer writing to {@code os}.
+     * @throws AbortException if the format is not supported.
+     */
+    @Nonnull
+    static ArchivePacker create(@Nonnull String name, @Nonnull OutputStream os) throws IOException {
+        String lower = name.toLowerCase(Locale.ENGLISH);
+        if (lower.endsWith(".zip")) {
+            return new Zip(os);
+        } else if (lower.endsWith(".tar")) {
+            return new Tar(os);
+        } else if (lower.endsWith(".tar.gz") || lower.endsWith(".tgz")) {
+            return new Tar(new GZIPOutputStream(os));
+        }
+        throw new AbortException(Messages.CopyArtifact_UnsupportedArchive(name));
+    }
+
+    /**
+     * Adds a file.
+     *
+     * @param path the path in the archive
+     * @param lastModified the timestamp of the file
+     * @param mode the permission of the file, or -1 if unknown
+     * @param length the size of the file
+     * @param in the contents of the file
+     * @return {@code false} if the path is already added and the file is skipped.
+     */
+    boolean addFile(@Nonnull String path, long lastModified, int mode, long length, @Nonnull InputStream in) throws IOException {
+        if (!claim(path)) {
+            return false;
+        }
+        writeFile(path, lastModified, mode, length, in);
+        return true;
+    }
+
+    /**
+     * Adds a symlink.
+     *
+     * @param path the path in the archive
+     * @param link the target of the symlink
+     * @return {@code false} if the symlink is skipped as the format doesn't support symlinks or the path is already added.
+     */
+    abstract boolean addSymlink(@Nonnull String path, @Nonnull String link) throws IOException;
+
+    /**
+     * @param path the path in the archive
+     * @return {@code false} if the path is already added.
+     */
+    protected final boolean claim(String path) {
+        return names.add(path);
+    }
+
+    protected abstract void writeFile(String path, long lastModified, int mode, long length, InputStream in) throws IOException;
+
+    private static class Zip extends ArchivePacker {
+        private final ZipOutputStream zip;
+
+        Zip(OutputStream os) {
+            this.zip = new ZipOutputStream(os);
+        }
+
+        @Override
+        protected void writeFile(String path, long lastModified, int mode, long length, InputStream in) throws IOException {
+            ZipEntry e = new ZipEntry(path);
+            e.setTime(lastModified);
+            zip.putNextEntry(e);
+            TransferContext.get().copy(in, zip, null);
+            zip.closeEntry();
+        }
+
+        @Override
+        boolean addSymlink(String path, String link) {
+            // zip has no standard way to store symlinks.
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            zip.close();
+        }
+    }
+
+    private static class Tar extends ArchivePacker {
+        private final TarArchiveOutputStream tar;
+
+        Tar(OutputStream os) {
+            this.tar = new TarArchiveOutputStream(os);
+            tar.setLongFileMode(TarArchiveOutputStream.LONGFILE_POSIX);
+            tar.setBigNumberMode(TarArchiveOutputStream.BIGNUMBER_POSIX);
+        }
+
+        @Override
+        protected void writeFile(String path, long lastModified, int mode, long length, InputStream in) throws IOException {
+            TarArchiveEntry e = new TarArchiveEntry(path);
+            e.setModTime(lastModified);
+            if (mode != -1) {
+                e.setMode(TarArchiveEntry.DEFAULT_FILE_MODE & ~0777 | mode & 0777);
+            }
+            // the size is written before contents.
+            e.setSize(length);
+            tar.putArchiveEntry(e);
+            long written = IOUtils.copyLarge(in, tar, 0, length, TransferContext.get().buffer());
+            if (written != length || in.read() != -1) {
+                throw new IOException(String.format("Size of %s changed while packing: expected %d bytes", path, length));
+            }
+            tar.closeArchiveEntry();
+        }
+
+        @Override
+        boolean addSymlink(String path, String link) throws IOException {
+            if (!claim(path)) {
+                return false;
+            }
+            TarArchiveEntry e = new TarArchiveEntry(path, TarArchiveEntry.LF_SYMLINK);
+            e.setLinkName(link);
+            tar.putArchiveEntry(e);
+            tar.closeArchiveEntry();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            tar.close();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import javax.annotation.Nonnull;
+import jenkins.util.VirtualFile;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Keeps contents of small artifacts in the controller heap,
+ * so that artifacts copied by many builds at once are read from the disk only once.
+ * Copies missing the same artifact at the same time share a single read.
+ *
+ * Entries are identified by the build, the location and the timestamp of the artifact,
+ * and the least recently used entries are evicted when the total size exceeds
+ * {@link CopyArtifactConfiguration#getArtifactCacheSize()}.
+ */
+final class ArtifactCache {
+    private static final ArtifactCache INSTANCE = new ArtifactCache();
+
+    private final LinkedHashMap<Key, byte[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * Artifacts being read from the artifact storage.
+     * Concurrent copies of the same artifact wait for the first read rather than reading it again.
+     */
+    private final Map<Key, CompletableFuture<byte[]>> loading = new HashMap<>();
+    private long size;
+
+    @Nonnull
+    static ArtifactCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Opens an artifact, reading it from the cache if cached,
+     * and caching it if small enough.
+     *
+     * @param build the externalizable id of the build the artifact belongs to
+     * @param s the artifact
+     * @return the contents of the artifact.
+     */
+    @Nonnull
+    InputStream open(@Nonnull String build, @Nonnull VirtualFile s) throws IOException {
+        CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+        if (config == null || config.getArtifactCacheSize() <= 0) {
+            return s.open();
+        }
+        long length = s.length();
+        if (length > config.getArtifactCacheMaxEntrySize() || length > config.getArtifactCacheSize()) {
+            return s.open();
+        }
+        Key key = new Key(build, s.toURI().toString(), s.lastModified());
+        CompletableFuture<byte[]> loading = null;
+        boolean loader = false;
+        byte[] data;
+        synchronized (this) {
+            data = entries.get(key);
+            if (data != null && data.length != length) {
+                data = null;
+            }
+            if (data == null) {
+                loading = this.loading.get(key);
+                if (loading == null) {
+                    loading = new CompletableFuture<>();
+                    this.loading.put(key, loading);
+                    loader = true;
+                }
+            }
+        }
+        CopyArtifactMetrics metrics = CopyArtifactMetrics.get();
+        if (data != null) {
+            metrics.cacheHit();
+            return new ByteArrayInputStream(data);
+        }
+        if (!loader) {
+            // another copy is reading the same artifact.
+            data = await(loading);
+            if (data != null && data.length == length) {
+                metrics.cacheHit();
+                return new ByteArrayInputStream(data);
+            }
+            return s.open();
+        }
+        metrics.cacheMissed();
+        try {
+            try (InputStream in = s.open()) {
+                data = IOUtils.toByteArray(in);
+            }
+            if (data.length == length) {
+                // not modified while read.
+                put(key, data, config.getArtifactCacheSize());
+            }
+        } finally {
+            synchronized (this) {
+                this.loading.remove(key);
+            }
+            // waiting copies read the artifact by themselves if failed.
+            loading.complete(data);
+        }
+        return new ByteArrayInputStream(data);
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> loading) throws IOException {
+        try {
+            return loading.get();
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException().initCause(x);
+        } catch (ExecutionException x) {
+            return null;
+        }
+    }
+
+    private synchronized void put(Key key, byte[] data, long capacity) {
+        byte[] old = entries.put(key, data);
+        if (old != null) {
+            size -= old.length;
+        }
+        size += data.length;
+        evict(capacity);
+    }
+
+    private void evict(long capacity) {
+        Iterator<byte[]> it = entries.values().iterator();
+        while (size > capacity && it.hasNext()) {
+            size -= it.next().length;
+            it.remove();
+        }
+    }
+
+    /**
+     * Evicts entries exceeding the configured size.
+     */
+    synchronized void configurationChanged() {
+        CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+        evict(config != null ? config.getArtifactCacheSize() : 0);
+    }
+
+    /**
+     * @return the total size of cached artifacts in bytes.
+     */
+    synchronized long getSize() {
+        return size;
+    }
+
+    private static final class Key {
+        private final String build;
+        private final String path;
+        private final long lastModified;
+
+        Key(String build, String path, long lastModified) {
+            this.build = build;
+            this.path = path;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return build.equals(k.build) && path.equals(k.path) && lastModified == k.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(build, path, lastModified);
+        }
+    }
+}
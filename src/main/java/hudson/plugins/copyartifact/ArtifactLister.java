@@ -0,0 +1,137 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.util.VirtualFile;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+
+/**
+ * Lists artifacts matching Ant-style patterns without walking the whole artifact tree when possible.
+ *
+ * Patterns without wildcards are looked up directly,
+ * and patterns starting with literal directories are listed from those directories.
+ * When any pattern starts with a wildcard, the whole tree is listed as {@link VirtualFile#list(String, String, boolean)} does.
+ */
+final class ArtifactLister {
+    private ArtifactLister() {
+    }
+
+    /**
+     * @param root the directory of artifacts
+     * @param includes comma or space separated patterns of files to list
+     * @param excludes comma or space separated patterns of files not to list, or {@code null}
+     * @return paths of matching files relative to {@code root}, separated with {@code /}.
+     */
+    @Nonnull
+    static Collection<String> list(@Nonnull VirtualFile root, @Nonnull String includes, @CheckForNull String excludes) throws IOException {
+        List<String> excludePatterns = excludes != null ? tokenize(excludes) : new ArrayList<String>();
+        Set<String> files = new LinkedHashSet<>();
+        // patterns relative to literal directories.
+        Map<String, List<String>> prefixed = new LinkedHashMap<>();
+        for (String pattern : tokenize(includes)) {
+            if (pattern.startsWith("/") || pattern.contains("..")) {
+                return root.list(includes, excludes, false);
+            }
+            String[] segments = pattern.split("/");
+            int literal = 0;
+            while (literal < segments.length && !hasWildcard(segments[literal])) {
+                ++literal;
+            }
+            if (literal == segments.length) {
+                if (root.child(pattern).isFile()) {
+                    files.add(pattern);
+                }
+                continue;
+            }
+            if (literal == 0) {
+                return root.list(includes, excludes, false);
+            }
+            String prefix = String.join("/", Arrays.asList(segments).subList(0, literal));
+            String rest = String.join("/", Arrays.asList(segments).subList(literal, segments.length));
+            List<String> patterns = prefixed.get(prefix);
+            if (patterns == null) {
+                patterns = new ArrayList<>();
+                prefixed.put(prefix, patterns);
+            }
+            patterns.add(rest);
+        }
+        for (Map.Entry<String, List<String>> e : prefixed.entrySet()) {
+            VirtualFile dir = root.child(e.getKey());
+            if (!dir.isDirectory()) {
+                continue;
+            }
+            for (String path : dir.list(String.join(",", e.getValue()), null, false)) {
+                files.add(e.getKey() + "/" + path);
+            }
+        }
+        if (!excludePatterns.isEmpty()) {
+            files.removeIf(path -> isExcluded(path, excludePatterns));
+        }
+        return files;
+    }
+
+    /**
+     * Splits patterns as Ant does.
+     */
+    @Nonnull
+    static List<String> tokenize(@Nonnull String patterns) {
+        List<String> tokens = new ArrayList<>();
+        for (String pattern : patterns.split("[,\\s]+")) {
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            if (pattern.endsWith("/")) {
+                // Ant matches everything under a pattern ending with a separator.
+                pattern += "**";
+            }
+            tokens.add(pattern);
+        }
+        return tokens;
+    }
+
+    private static boolean hasWildcard(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0;
+    }
+
+    private static boolean isExcluded(String path, List<String> excludes) {
+        for (String pattern : excludes) {
+            if (SelectorUtils.matchPath(pattern.replace('/', File.separatorChar), path.replace('/', File.separatorChar))) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,287 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.EnvVars;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.AbstractProject;
+import hudson.model.Computer;
+import hudson.model.Item;
+import hudson.model.ItemGroup;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.Label;
+import hudson.model.Node;
+import hudson.model.Run;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.RunListener;
+import hudson.model.queue.Tasks;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.VirtualFile;
+import org.acegisecurity.Authentication;
+
+/**
+ * Stages artifacts of a completed build in idle agents
+ * which can run projects copying artifacts from that build,
+ * so that those copies read artifacts from the agent instead of the controller.
+ *
+ * Enabled with {@link CopyArtifactConfiguration#isPreStageArtifacts()}.
+ * Only copies with selectors not using the copying build, and without build parameters or variables, are considered.
+ * Copies are looked up from an index by the job they copy from, rather than by scanning all projects for each build.
+ */
+@Extension
+public class ArtifactPreStager extends RunListener<Run<?, ?>> {
+    private static final Logger LOGGER = Logger.getLogger(ArtifactPreStager.class.getName());
+
+    /**
+     * Selectors which select builds without the copying build.
+     * Subclasses are not included, as they may use it.
+     */
+    private static final Set<Class<? extends BuildSelector>> SELECTORS_WITHOUT_PARENT = new HashSet<>(Arrays.asList(
+            StatusBuildSelector.class,
+            LastCompletedBuildSelector.class,
+            LastBuildWithArtifactSelector.class,
+            SavedBuildSelector.class,
+            PermalinkBuildSelector.class
+    ));
+
+    /**
+     * Copies which may copy artifacts from each job, by the full name of the job.
+     * Built when first needed, and discarded when any item is changed.
+     */
+    private static Map<String, List<Candidate>> index;
+
+    /**
+     * Called when the build is completed and selectable as a completed build.
+     */
+    @Override
+    public void onFinalized(Run<?, ?> run) {
+        CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+        if (config == null || !config.isPreStageArtifacts() || !run.getHasArtifacts()) {
+            return;
+        }
+        Computer.threadPoolForRemoting.submit(() -> {
+            try (ACLContext ctx = ACL.as(ACL.SYSTEM)) {
+                stage(run);
+            } catch (IOException | RuntimeException x) {
+                LOGGER.log(Level.WARNING, "Failed to stage artifacts of " + run, x);
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static void stage(Run<?, ?> run) throws IOException, InterruptedException {
+        Jenkins jenkins = Jenkins.get();
+        Job<?, ?> job = run.getParent();
+        List<Candidate> candidates = getIndex().get(job.getFullName());
+        if (candidates == null) {
+            return;
+        }
+        // agents to patterns of artifacts to stage there
+        Map<Node, Set<String>> targets = new LinkedHashMap<>();
+        for (Candidate candidate : candidates) {
+            AbstractProject<?, ?> project = candidate.project;
+            Label label = project.getAssignedLabel();
+            if (label == null || project.isDisabled() || !canStage(project, job) || !selects(candidate, run)) {
+                continue;
+            }
+            for (Node node : label.getNodes()) {
+                Computer c = node.toComputer();
+                if (node == jenkins || c == null || c.isOffline() || !c.isIdle()) {
+                    continue;
+                }
+                Set<String> patterns = targets.get(node);
+                if (patterns == null) {
+                    patterns = new HashSet<>();
+                    targets.put(node, patterns);
+                }
+                patterns.add(candidate.pattern);
+            }
+        }
+        if (targets.isEmpty()) {
+            return;
+        }
+        VirtualFile root = run.getArtifactManager().root();
+        for (Map.Entry<Node, Set<String>> e : targets.entrySet()) {
+            FilePath nodeRoot = e.getKey().getRootPath();
+            if (nodeRoot == null) {
+                continue;
+            }
+            Collection<String> entries = ArtifactLister.list(root, String.join(",", e.getValue()), null);
+            int staged = AgentArtifactCache.stage(nodeRoot, job.getFullName(), run.getNumber(), root, entries);
+            LOGGER.log(Level.FINE, "Staged {0} artifacts of {1} in {2}", new Object[] {staged, run, e.getKey().getNodeName()});
+        }
+    }
+
+    /**
+     * @return copies which may copy artifacts from each job, by the full name of the job.
+     */
+    private static synchronized Map<String, List<Candidate>> getIndex() {
+        if (index == null) {
+            Jenkins jenkins = Jenkins.get();
+            Map<String, List<Candidate>> candidates = new HashMap<>();
+            for (AbstractProject<?, ?> project : jenkins.getAllItems(AbstractProject.class)) {
+                for (CopyArtifact ca : CopyArtifact.getCopyArtifactsInProject(project)) {
+                    String pattern = getPattern(ca);
+                    if (pattern == null) {
+                        continue;
+                    }
+                    Job<?, ?> job = jenkins.getItem(ca.getProjectName(), project.getParent(), Job.class);
+                    if (job == null) {
+                        continue;
+                    }
+                    List<Candidate> list = candidates.get(job.getFullName());
+                    if (list == null) {
+                        list = new ArrayList<>();
+                        candidates.put(job.getFullName(), list);
+                    }
+                    list.add(new Candidate(project, ca, pattern));
+                }
+            }
+            index = candidates;
+        }
+        return index;
+    }
+
+    private static synchronized void invalidateIndex() {
+        index = null;
+    }
+
+    /**
+     * @return the pattern of artifacts the copy would copy, or {@code null} if it depends on the copying build.
+     */
+    private static String getPattern(CopyArtifact ca) {
+        String projectName = ca.getProjectName();
+        String filter = ca.getFilter();
+        if (projectName == null || projectName.indexOf('$') >= 0 || (filter != null && filter.indexOf('$') >= 0)
+                || Util.fixEmptyAndTrim(ca.getParameters()) != null || Util.fixEmptyAndTrim(ca.getExcludes()) != null) {
+            return null;
+        }
+        return (filter == null || filter.trim().isEmpty()) ? "**" : filter.replace('\\', '/');
+    }
+
+    /**
+     * @return whether the copy would copy from the build.
+     */
+    private static boolean selects(Candidate candidate, Run<?, ?> run) {
+        BuildSelector selector = candidate.copyArtifact.getBuildSelector();
+        if (!SELECTORS_WITHOUT_PARENT.contains(selector.getClass())) {
+            // the build may depend on the copying build.
+            return false;
+        }
+        return selector.getBuild(run.getParent(), new EnvVars(), new BuildFilter(), null) == run;
+    }
+
+    /**
+     * Artifacts are staged only if the project is allowed to copy them
+     * with {@link CopyArtifactPermissionProperty}, or with the authentication its builds run as,
+     * as staged artifacts are readable by builds running on the agent.
+     */
+    private static boolean canStage(AbstractProject<?, ?> project, Job<?, ?> job) {
+        if (CopyArtifactPermissionProperty.canCopyArtifact(project.getRootProject(), CopyArtifact.getRootProject(job))) {
+            return true;
+        }
+        Authentication a = Tasks.getAuthenticationOf(project);
+        if (ACL.SYSTEM.equals(a)) {
+            // builds are not configured to run with a proper authorization.
+            return false;
+        }
+        try (ACLContext ctx = ACL.as(a)) {
+            return job.hasPermission(Item.READ);
+        }
+    }
+
+    private static final class Candidate {
+        private final AbstractProject<?, ?> project;
+        private final CopyArtifact copyArtifact;
+        private final String pattern;
+
+        Candidate(AbstractProject<?, ?> project, CopyArtifact copyArtifact, String pattern) {
+            this.project = project;
+            this.copyArtifact = copyArtifact;
+            this.pattern = pattern;
+        }
+    }
+
+    /**
+     * @param fullName the full name of the item, which may differ from the current one when renamed
+     * @return full names of the job, or of jobs in the folder.
+     */
+    private static List<String> getJobNames(Item item, String fullName) {
+        List<String> names = new ArrayList<>();
+        names.add(fullName);
+        if (item instanceof ItemGroup) {
+            for (Job<?, ?> job : Items.getAllItems((ItemGroup<?>) item, Job.class)) {
+                names.add(fullName + job.getFullName().substring(item.getFullName().length()));
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Rebuilds the index of copies when projects are changed,
+     * and removes artifacts staged from deleted or renamed jobs.
+     */
+    @Extension
+    public static class IndexInvalidator extends ItemListener {
+        @Override
+        public void onCreated(Item item) {
+            invalidateIndex();
+        }
+
+        @Override
+        public void onUpdated(Item item) {
+            invalidateIndex();
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            invalidateIndex();
+            AgentArtifactCache.forget(getJobNames(item, item.getFullName()));
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            invalidateIndex();
+            AgentArtifactCache.forget(getJobNames(item, oldFullName));
+        }
+    }
+}
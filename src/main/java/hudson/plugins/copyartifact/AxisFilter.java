@@ -0,0 +1,127 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.AbortException;
+import hudson.matrix.Combination;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+
+/**
+ * Selects configurations of a matrix build to copy artifacts from,
+ * with an expression like {@code jdk=17,os=linux*}.
+ *
+ * Values are glob patterns with {@code *} and {@code ?}.
+ * Terms for the same axis match any of their values,
+ * and terms for different axes must all match.
+ */
+final class AxisFilter {
+    private final Map<String, List<String>> axes;
+    private final String expression;
+
+    private AxisFilter(Map<String, List<String>> axes, String expression) {
+        this.axes = axes;
+        this.expression = expression;
+    }
+
+    /**
+     * @param expression comma separated {@code name=pattern}
+     * @return the parsed filter.
+     * @throws AbortException the expression is malformed.
+     */
+    @Nonnull
+    static AxisFilter parse(@Nonnull String expression) throws AbortException {
+        Map<String, List<String>> axes = new LinkedHashMap<>();
+        for (String term : expression.split(",")) {
+            int i = term.indexOf('=');
+            String name = (i > 0) ? term.substring(0, i).trim() : "";
+            if (name.isEmpty()) {
+                throw new AbortException(Messages.CopyArtifact_InvalidAxisFilter(expression));
+            }
+            List<String> values = axes.get(name);
+            if (values == null) {
+                values = new ArrayList<>();
+                axes.put(name, values);
+            }
+            values.add(term.substring(i + 1).trim());
+        }
+        return new AxisFilter(axes, expression);
+    }
+
+    /**
+     * @param combination the configuration
+     * @return whether to copy artifacts from the configuration.
+     */
+    boolean matches(@Nonnull Combination combination) {
+        for (Map.Entry<String, List<String>> e : axes.entrySet()) {
+            String value = combination.get(e.getKey());
+            if (value == null || !matchesAny(e.getValue(), value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param combinations configurations of a matrix build
+     * @return values of each axis in the configurations, to report when none matches.
+     */
+    @Nonnull
+    static String describe(@Nonnull Collection<Combination> combinations) {
+        Map<String, Set<String>> values = new TreeMap<>();
+        for (Combination combination : combinations) {
+            for (Map.Entry<String, String> e : combination.entrySet()) {
+                Set<String> axis = values.get(e.getKey());
+                if (axis == null) {
+                    axis = new TreeSet<>();
+                    values.put(e.getKey(), axis);
+                }
+                axis.add(e.getValue());
+            }
+        }
+        return values.toString();
+    }
+
+    private static boolean matchesAny(List<String> patterns, String value) {
+        for (String pattern : patterns) {
+            if (SelectorUtils.match(pattern, value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
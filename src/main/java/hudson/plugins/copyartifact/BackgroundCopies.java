@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.AbortException;
+import hudson.Extension;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.model.listeners.RunListener;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Copies started by {@code copyArtifactsAsync(wait: false)} and not waited for yet.
+ *
+ * Copies are identified by handles returned from the step,
+ * and are cancelled when the build finishes without waiting for them.
+ */
+final class BackgroundCopies {
+    private static final Map<String, Pending> PENDING = new ConcurrentHashMap<>();
+
+    private BackgroundCopies() {
+    }
+
+    /**
+     * Registers a copy running in background.
+     *
+     * @param run the build copying artifacts
+     * @param task the task performing the copy, used to cancel it
+     * @param result completed with the value of the step when the copy finishes
+     * @return the handle to wait for the copy.
+     */
+    @Nonnull
+    static String register(@Nonnull Run<?, ?> run, @Nonnull Future<?> task, @Nonnull CompletableFuture<Object> result) {
+        String handle = UUID.randomUUID().toString();
+        PENDING.put(handle, new Pending(run.getExternalizableId(), task, result));
+        return handle;
+    }
+
+    /**
+     * Removes a copy to wait for.
+     *
+     * @param run the build waiting for the copy
+     * @param handle the handle returned when the copy was started
+     * @return the copy, or {@code null} if no such copy is started by the build or it is already waited for.
+     */
+    @CheckForNull
+    static Pending remove(@Nonnull Run<?, ?> run, @Nonnull String handle) {
+        Pending pending = PENDING.get(handle);
+        if (pending == null || !pending.runId.equals(run.getExternalizableId())) {
+            return null;
+        }
+        return PENDING.remove(handle) != null ? pending : null;
+    }
+
+    static final class Pending {
+        private final String runId;
+        private final Future<?> task;
+        private final CompletableFuture<Object> result;
+
+        Pending(String runId, Future<?> task, CompletableFuture<Object> result) {
+            this.runId = runId;
+            this.task = task;
+            this.result = result;
+        }
+
+        /**
+         * @return completed with the value of the step when the copy finishes, exceptionally if the copy fails.
+         */
+        @Nonnull
+        CompletableFuture<Object> getResult() {
+            return result;
+        }
+
+        /**
+         * Interrupts the copy, and completes the result exceptionally
+         * even if the copy has not started yet.
+         *
+         * @param cause the reason of the cancellation
+         */
+        void cancel(@Nonnull Throwable cause) {
+            result.completeExceptionally(cause);
+            task.cancel(true);
+        }
+    }
+
+    /**
+     * Cancels copies the build did not wait for.
+     */
+    @Extension
+    public static class RunListenerImpl extends RunListener<Run<?, ?>> {
+        @Override
+        public void onCompleted(Run<?, ?> run, @Nonnull TaskListener listener) {
+            String runId = run.getExternalizableId();
+            for (Iterator<Pending> it = PENDING.values().iterator(); it.hasNext(); ) {
+                Pending pending = it.next();
+                if (!pending.runId.equals(runId)) {
+                    continue;
+                }
+                it.remove();
+                if (!pending.result.isDone()) {
+                    listener.getLogger().println(Messages.BackgroundCopies_Cancelled());
+                    pending.cancel(new AbortException(Messages.BackgroundCopies_Cancelled()));
+                } else if (pending.result.isCompletedExceptionally()) {
+                    pending.result.exceptionally(t -> {
+                        listener.error(Messages.BackgroundCopies_FailedNotWaited(t.getMessage()));
+                        return null;
+                    });
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import javax.annotation.CheckForNull;
+import org.jvnet.localizer.Localizable;
+
+/**
+ * Checksums to calculate while copying artifacts, in addition to MD5 digests used for fingerprints.
+ *
+ * Checksums are written into a manifest in the target directory in the format of {@code sha256sum}.
+ */
+public enum ChecksumAlgorithm {
+    /**
+     * Do not write checksums.
+     */
+    NONE(Messages._ChecksumAlgorithm_None(), null, null),
+    /**
+     * SHA-256, written to {@code SHA256SUMS}.
+     */
+    SHA256(Messages._ChecksumAlgorithm_SHA256(), "SHA-256", "SHA256SUMS"),
+    /**
+     * SHA-512, written to {@code SHA512SUMS}.
+     */
+    SHA512(Messages._ChecksumAlgorithm_SHA512(), "SHA-512", "SHA512SUMS"),
+    /**
+     * CRC32, a fast checksum to detect changes, written to {@code CRC32SUMS}.
+     */
+    CRC32(Messages._ChecksumAlgorithm_CRC32(), null, "CRC32SUMS");
+
+    private final Localizable displayName;
+    private final String digestName;
+    private final String manifestName;
+
+    ChecksumAlgorithm(Localizable displayName, String digestName, String manifestName) {
+        this.displayName = displayName;
+        this.digestName = digestName;
+        this.manifestName = manifestName;
+    }
+
+    public String getDisplayName() {
+        return displayName.toString();
+    }
+
+    /**
+     * @return the name of the {@link java.security.MessageDigest} algorithm, or {@code null} if not a message digest.
+     */
+    @CheckForNull
+    String getDigestName() {
+        return digestName;
+    }
+
+    /**
+     * @return the name of the manifest file.
+     */
+    String getManifestName() {
+        return manifestName;
+    }
+}
@@ -0,0 +1,307 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.remoting.VirtualChannel;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.util.VirtualFile;
+
+/**
+ * Collects checksums of copied files and writes them into a manifest in the target directory.
+ *
+ * Checksums are calculated from artifacts while they are read to be copied.
+ * Files copied without reading artifacts on the controller,
+ * like downloads from external URLs or files copied by a previous attempt, are read again on the agent.
+ */
+final class ChecksumManifest {
+    private final ChecksumAlgorithm algorithm;
+    private final FilePath root;
+    private final Map<String, String> sums = new TreeMap<>();
+    @CheckForNull
+    private VirtualFile current;
+    @CheckForNull
+    private Hasher hasher;
+
+    /**
+     * @param algorithm the checksum to calculate
+     * @param root the target directory, where the manifest is written
+     */
+    ChecksumManifest(@Nonnull ChecksumAlgorithm algorithm, @Nonnull FilePath root) {
+        this.algorithm = algorithm;
+        this.root = root;
+    }
+
+    /**
+     * Starts calculating the checksum of an artifact.
+     *
+     * @param s the artifact being copied
+     * @return the checksum to update with the contents of the artifact.
+     */
+    @Nonnull
+    Hasher begin(@Nonnull VirtualFile s) {
+        current = s;
+        hasher = new Hasher(algorithm);
+        return hasher;
+    }
+
+    /**
+     * @param s the artifact being copied
+     * @param in the contents of the artifact
+     * @return the stream calculating the checksum while read.
+     */
+    @Nonnull
+    InputStream hashing(@Nonnull VirtualFile s, @Nonnull InputStream in) {
+        return new HashingInputStream(in, begin(s));
+    }
+
+    /**
+     * Records the checksum of a copied file.
+     * The file is read again if the artifact was not read to the end while copied.
+     *
+     * @param s the artifact, or {@code null} if the artifact was not read
+     * @param d the copied file
+     */
+    void add(@CheckForNull VirtualFile s, @Nonnull FilePath d) throws IOException, InterruptedException {
+        String sum;
+        if (s != null && s == current && hasher != null && hasher.isComplete()) {
+            sum = hasher.hex();
+        } else {
+            sum = d.act(new Calculate(algorithm));
+        }
+        current = null;
+        hasher = null;
+        sums.put(relativize(d), sum);
+    }
+
+    private String relativize(FilePath target) {
+        String base = root.getRemote();
+        String path = target.getRemote();
+        if (path.length() > base.length() && path.startsWith(base)) {
+            path = path.substring(base.length() + 1);
+        }
+        return path.replace('\\', '/');
+    }
+
+    /**
+     * @return the number of recorded files.
+     */
+    int size() {
+        return sums.size();
+    }
+
+    /**
+     * Writes the manifest, keeping checksums of other files in an existing manifest.
+     */
+    void write() throws IOException, InterruptedException {
+        FilePath f = root.child(algorithm.getManifestName());
+        Map<String, String> merged = new TreeMap<>();
+        if (f.exists()) {
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(f.read(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    int i = line.indexOf(' ');
+                    if (i > 0 && line.length() > i + 2) {
+                        // "<sum>  <path>", or "<sum> *<path>" in binary mode
+                        merged.put(line.substring(i + 2), line.substring(0, i));
+                    }
+                }
+            }
+        }
+        merged.putAll(sums);
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> e : merged.entrySet()) {
+            sb.append(e.getValue()).append("  ").append(e.getKey()).append('\n');
+        }
+        f.write(sb.toString(), "UTF-8");
+    }
+
+    /**
+     * Calculates a checksum.
+     */
+    static final class Hasher {
+        @CheckForNull
+        private final MessageDigest digest;
+        @CheckForNull
+        private final CRC32 crc;
+        private boolean complete;
+
+        Hasher(@Nonnull ChecksumAlgorithm algorithm) {
+            if (algorithm.getDigestName() != null) {
+                try {
+                    digest = MessageDigest.getInstance(algorithm.getDigestName());
+                } catch (NoSuchAlgorithmException x) {
+                    throw new AssertionError(x);
+                }
+                crc = null;
+            } else {
+                digest = null;
+                crc = new CRC32();
+            }
+        }
+
+        void update(byte b) {
+            if (digest != null) {
+                digest.update(b);
+            } else {
+                crc.update(b);
+            }
+        }
+
+        void update(byte[] b, int off, int len) {
+            if (digest != null) {
+                digest.update(b, off, len);
+            } else {
+                crc.update(b, off, len);
+            }
+        }
+
+        /**
+         * @param b updated with remaining bytes, which are consumed
+         */
+        void update(ByteBuffer b) {
+            if (digest != null) {
+                digest.update(b);
+            } else {
+                crc.update(b);
+            }
+        }
+
+        /**
+         * Marks all contents have been passed.
+         */
+        void complete() {
+            complete = true;
+        }
+
+        boolean isComplete() {
+            return complete;
+        }
+
+        @Nonnull
+        String hex() {
+            if (digest != null) {
+                return Util.toHexString(digest.digest());
+            }
+            return String.format("%08x", crc.getValue());
+        }
+    }
+
+    private static final class HashingInputStream extends FilterInputStream {
+        private final Hasher hasher;
+
+        HashingInputStream(InputStream in, Hasher hasher) {
+            super(in);
+            this.hasher = hasher;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b < 0) {
+                hasher.complete();
+            } else {
+                hasher.update((byte) b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n < 0) {
+                hasher.complete();
+            } else {
+                hasher.update(b, off, n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // skipped bytes are read to be hashed.
+            if (n <= 0) {
+                return 0;
+            }
+            byte[] buf = new byte[(int) Math.min(n, 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                int r = read(buf, 0, (int) Math.min(buf.length, n - skipped));
+                if (r < 0) {
+                    break;
+                }
+                skipped += r;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+
+    /**
+     * Calculates the checksum of a copied file.
+     */
+    private static final class Calculate extends MasterToSlaveFileCallable<String> {
+        private static final long serialVersionUID = 1L;
+
+        private final ChecksumAlgorithm algorithm;
+
+        Calculate(ChecksumAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        @Override
+        public String invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            Hasher hasher = new Hasher(algorithm);
+            byte[] buf = TransferContext.get().buffer();
+            try (InputStream in = Files.newInputStream(f.toPath())) {
+                int n;
+                while ((n = in.read(buf)) >= 0) {
+                    hasher.update(buf, 0, n);
+                }
+            }
+            return hasher.hex();
+        }
+    }
+}
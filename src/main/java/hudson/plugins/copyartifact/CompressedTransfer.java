@@ -0,0 +1,241 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.FilePath;
+import hudson.remoting.RemoteInputStream;
+import hudson.remoting.VirtualChannel;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Transfers an artifact to an agent compressed with deflate,
+ * and decompresses it on the agent.
+ *
+ * With {@link TransferCompression#AUTO}, artifacts are compressed when the extension is known to be compressible,
+ * or when the beginning of the artifact compresses well for an unknown extension.
+ */
+final class CompressedTransfer {
+    /**
+     * The number of bytes to try compressing to decide whether to compress an artifact with an unknown extension.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ int SAMPLE_SIZE = Integer.getInteger(CopyArtifact.class.getName() + ".compressionSampleSize", 64 * 1024);
+
+    /**
+     * Compress when the sample is compressed to this ratio or less.
+     */
+    private static final double MAX_RATIO = 0.8;
+
+    private static final Set<String> COMPRESSED = new HashSet<>(Arrays.asList(
+            "zip", "jar", "war", "ear", "hpi", "jpi", "apk", "aar", "whl", "nupkg",
+            "gz", "tgz", "bz2", "xz", "lz4", "zst", "7z", "rar", "rpm", "deb",
+            "png", "jpg", "jpeg", "gif", "webp", "mp3", "mp4", "mkv", "mov", "avi", "pdf"
+    ));
+
+    private static final Set<String> COMPRESSIBLE = new HashSet<>(Arrays.asList(
+            "txt", "log", "xml", "json", "html", "htm", "csv", "tsv", "md", "yaml", "yml", "properties",
+            "js", "css", "svg", "java", "c", "h", "cpp", "py", "sh", "sql", "tar"
+    ));
+
+    private CompressedTransfer() {
+    }
+
+    /**
+     * Writes the artifact to the file.
+     *
+     * @param in the contents of the artifact, read to the end
+     * @param d the file to write
+     * @param mode whether to compress
+     */
+    static void copy(@Nonnull InputStream in, @Nonnull FilePath d, @Nonnull TransferCompression mode) throws IOException, InterruptedException {
+        boolean compress;
+        switch (mode) {
+        case ALWAYS:
+            compress = d.isRemote();
+            break;
+        case AUTO:
+            if (!d.isRemote()) {
+                compress = false;
+                break;
+            }
+            String extension = getExtension(d.getName());
+            if (COMPRESSED.contains(extension)) {
+                compress = false;
+            } else if (COMPRESSIBLE.contains(extension)) {
+                compress = true;
+            } else {
+                byte[] sample = new byte[SAMPLE_SIZE];
+                int n = IOUtils.read(in, sample);
+                sample = Arrays.copyOf(sample, n);
+                compress = isCompressible(sample);
+                in = new SequenceInputStream(new ByteArrayInputStream(sample), in);
+            }
+            break;
+        default:
+            compress = false;
+            break;
+        }
+        if (!compress) {
+            d.copyFrom(in);
+            return;
+        }
+        // greedy, so that the agent doesn't wait for a round trip per read.
+        // the pump thread may outlive the call, which Deflating allows.
+        try (Deflating deflating = new Deflating(in)) {
+            d.act(new Inflate(new RemoteInputStream(deflating, RemoteInputStream.Flag.GREEDY)));
+        }
+    }
+
+    private static String getExtension(String name) {
+        int i = name.lastIndexOf('.');
+        return i >= 0 ? name.substring(i + 1).toLowerCase(Locale.ENGLISH) : "";
+    }
+
+    static boolean isCompressible(@Nonnull byte[] sample) {
+        if (sample.length == 0) {
+            return false;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(sample);
+            deflater.finish();
+            byte[] buf = new byte[8192];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(buf);
+                if (compressed > sample.length * MAX_RATIO) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Compresses a stream read by remoting threads,
+     * ending the native deflater only when no thread is reading it.
+     */
+    private static final class Deflating extends FilterInputStream {
+        private final Deflater deflater;
+        private boolean closed;
+
+        Deflating(InputStream in) {
+            this(in, new Deflater(Deflater.BEST_SPEED));
+        }
+
+        private Deflating(InputStream in, Deflater deflater) {
+            super(new DeflaterInputStream(in, deflater, TransferContext.CHUNK_SIZE));
+            this.deflater = deflater;
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            ensureOpen();
+            return super.read();
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            ensureOpen();
+            return super.read(b, off, len);
+        }
+
+        @Override
+        public synchronized long skip(long n) throws IOException {
+            ensureOpen();
+            return super.skip(n);
+        }
+
+        @Override
+        public synchronized int available() throws IOException {
+            ensureOpen();
+            return super.available();
+        }
+
+        private void ensureOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                super.close();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Writes decompressed contents to the file.
+     */
+    private static final class Inflate extends MasterToSlaveFileCallable<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final InputStream in;
+
+        Inflate(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public Void invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            hudson.util.IOUtils.mkdirs(f.getParentFile());
+            Inflater inflater = new Inflater();
+            try (InputStream is = new InflaterInputStream(in, inflater, TransferContext.CHUNK_SIZE); OutputStream os = new FileOutputStream(f)) {
+                TransferContext.get().copy(is, os, null);
+            } finally {
+                inflater.end();
+            }
+            return null;
+        }
+    }
+}
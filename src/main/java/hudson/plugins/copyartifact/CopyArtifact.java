@@ -25,6 +25,8 @@ package hudson.plugins.copyartifact;
 
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+
 import hudson.AbortException;
 import hudson.EnvVars;
 import hudson.Extension;
@@ -35,13 +37,16 @@ import hudson.console.HyperlinkNote;
 import hudson.diagnosis.OldDataMonitor;
 import hudson.init.InitMilestone;
 import hudson.init.Initializer;
+import hudson.matrix.Combination;
 import hudson.matrix.MatrixBuild;
 import hudson.matrix.MatrixProject;
+import hudson.matrix.MatrixRun;
 import hudson.maven.MavenBuild;
 import hudson.maven.MavenModuleSet;
 import hudson.maven.MavenModuleSetBuild;
 import hudson.model.*;
 import hudson.model.listeners.ItemListener;
+import hudson.remoting.RemoteInputStream;
 import hudson.remoting.VirtualChannel;
 import hudson.security.ACL;
 import hudson.security.SecurityRealm;
@@ -53,6 +58,7 @@ import hudson.util.FormValidation;
 import hudson.util.VariableResolver;
 import hudson.util.XStream2;
 import io.jenkins.plugins.httpclient.RobustHTTPClient;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 
@@ -61,9 +67,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.net.URL;
-import java.security.DigestOutputStream;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -74,7 +81,9 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.CheckForNull;
 
+import jenkins.model.ArtifactManager;
 import jenkins.model.Jenkins;
+import jenkins.model.StandardArtifactManager;
 
 import jenkins.tasks.SimpleBuildStep;
 import org.acegisecurity.Authentication;
@@ -93,7 +102,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import jenkins.MasterToSlaveFileCallable;
 import jenkins.util.VirtualFile;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CountingInputStream;
 import org.apache.http.client.methods.HttpGet;
 
 /**
@@ -107,6 +116,13 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
     private static Logger LOGGER = Logger.getLogger(CopyArtifact.class.getName());
     private static final BuildSelector DEFAULT_BUILD_SELECTOR = new StatusBuildSelector(true);
 
+    /**
+     * Set timestamps and permissions of copied files and create symlinks one by one
+     * instead of doing that in a single call to the agent at the end of the copy.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ boolean DISABLE_METADATA_BATCHING = Boolean.getBoolean(CopyArtifact.class.getName() + ".disableMetadataBatching");
+
     @Deprecated private String projectName;
     private String project;
     private String parameters;
@@ -117,6 +133,16 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
     private Boolean flatten, optional;
     private boolean doNotFingerprintArtifacts;
     private String resultVariableSuffix;
+    private Boolean extractArchives;
+    private String extractFilter;
+    private String packAs;
+    private Boolean dryRun;
+    private Boolean resumable;
+    private Boolean deltaTransfer;
+    private TransferCompression compression;
+    private ChecksumAlgorithm checksum;
+    private String axisFilter;
+    private String moduleFilter;
 
     @Deprecated
     public CopyArtifact(String projectName, String parameters, BuildSelector selector, String filter, String target,
@@ -228,6 +254,106 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
         this.resultVariableSuffix = Util.fixEmptyAndTrim(resultVariableSuffix);
     }
 
+    /**
+     * Set whether to extract zip and tar archives instead of copying them.
+     *
+     * @param extractArchives {@code true} to write only entries of archives.
+     */
+    @DataBoundSetter
+    public void setExtractArchives(boolean extractArchives) {
+        this.extractArchives = extractArchives ? Boolean.TRUE : null;
+    }
+
+    /**
+     * Set entries to extract from archives.
+     *
+     * @param extractFilter comma separated Ant patterns. Empty to extract all entries.
+     */
+    @DataBoundSetter
+    public void setExtractFilter(String extractFilter) {
+        this.extractFilter = Util.fixEmptyAndTrim(extractFilter);
+    }
+
+    /**
+     * Set the name of an archive to pack copied artifacts into.
+     *
+     * @param packAs the name like {@code artifacts.zip} or {@code artifacts.tar.gz}. Empty to copy files as they are.
+     */
+    @DataBoundSetter
+    public void setPackAs(String packAs) {
+        this.packAs = Util.fixEmptyAndTrim(packAs);
+    }
+
+    /**
+     * Set whether to only report files to copy without copying them.
+     *
+     * @param dryRun {@code true} to list files, their sizes and target paths instead of copying them
+     */
+    @DataBoundSetter
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun ? Boolean.TRUE : null;
+    }
+
+    /**
+     * Set whether to record copied files so that a retried copy transfers only files not copied yet.
+     *
+     * @param resumable {@code true} to write a journal of copied files to the target directory
+     */
+    @DataBoundSetter
+    public void setResumable(boolean resumable) {
+        this.resumable = resumable ? Boolean.TRUE : null;
+    }
+
+    /**
+     * Set whether to transfer only blocks changed from files already in the target directory.
+     *
+     * @param deltaTransfer {@code true} to transfer changes of large files like rsync
+     */
+    @DataBoundSetter
+    public void setDeltaTransfer(boolean deltaTransfer) {
+        this.deltaTransfer = deltaTransfer ? Boolean.TRUE : null;
+    }
+
+    /**
+     * Set whether to compress artifacts while transferring them to agents.
+     *
+     * @param compression how to compress. {@code null} not to compress.
+     */
+    @DataBoundSetter
+    public void setCompression(TransferCompression compression) {
+        this.compression = (compression != TransferCompression.NONE) ? compression : null;
+    }
+
+    /**
+     * Set checksums to write into a manifest in the target directory.
+     *
+     * @param checksum the checksum to calculate. {@code null} not to write checksums.
+     */
+    @DataBoundSetter
+    public void setChecksum(ChecksumAlgorithm checksum) {
+        this.checksum = (checksum != ChecksumAlgorithm.NONE) ? checksum : null;
+    }
+
+    /**
+     * Set configurations of a matrix build to copy artifacts from.
+     *
+     * @param axisFilter comma separated {@code name=pattern} like {@code jdk=17,os=linux*}. Empty to copy from all configurations.
+     */
+    @DataBoundSetter
+    public void setAxisFilter(String axisFilter) {
+        this.axisFilter = Util.fixEmptyAndTrim(axisFilter);
+    }
+
+    /**
+     * Set modules of a Maven build to copy artifacts from.
+     *
+     * @param moduleFilter comma separated patterns of {@code groupId:artifactId} or {@code artifactId}. Empty to copy from all modules.
+     */
+    @DataBoundSetter
+    public void setModuleFilter(String moduleFilter) {
+        this.moduleFilter = Util.fixEmptyAndTrim(moduleFilter);
+    }
+
     // Upgrade data from old format
     public static class ConverterImpl extends XStream2.PassthruConverter<CopyArtifact> {
         public ConverterImpl(XStream2 xstream) { super(xstream); }
@@ -253,7 +379,7 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
     }
 
     // get all CopyArtifacts configured to AbstractProject. This works both for Project and MatrixProject.
-    private static List<CopyArtifact> getCopyArtifactsInProject(AbstractProject<?,?> project) throws IOException {
+    static List<CopyArtifact> getCopyArtifactsInProject(AbstractProject<?,?> project) throws IOException {
         DescribableList<Builder,Descriptor<Builder>> list =
                 project instanceof Project ? ((Project<?,?>)project).getBuildersList()
                   : (project instanceof MatrixProject ?
@@ -341,6 +467,75 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
         return resultVariableSuffix;
     }
 
+    public boolean isExtractArchives() {
+        return extractArchives != null && extractArchives;
+    }
+
+    /**
+     * @return entries to extract from archives, or {@code null} to extract all entries.
+     */
+    public String getExtractFilter() {
+        return extractFilter;
+    }
+
+    /**
+     * @return the name of an archive to pack copied artifacts into, or {@code null} to copy files as they are.
+     */
+    public String getPackAs() {
+        return packAs;
+    }
+
+    /**
+     * @return whether to only report files to copy without copying them.
+     */
+    public boolean isDryRun() {
+        return dryRun != null && dryRun;
+    }
+
+    /**
+     * @return whether to record copied files so that a retried copy transfers only files not copied yet.
+     */
+    public boolean isResumable() {
+        return resumable != null && resumable;
+    }
+
+    /**
+     * @return whether to transfer only blocks changed from files already in the target directory.
+     */
+    public boolean isDeltaTransfer() {
+        return deltaTransfer != null && deltaTransfer;
+    }
+
+    /**
+     * @return whether to compress artifacts while transferring them to agents.
+     */
+    @Nonnull
+    public TransferCompression getCompression() {
+        return compression != null ? compression : TransferCompression.NONE;
+    }
+
+    /**
+     * @return checksums to write into a manifest in the target directory.
+     */
+    @Nonnull
+    public ChecksumAlgorithm getChecksum() {
+        return checksum != null ? checksum : ChecksumAlgorithm.NONE;
+    }
+
+    /**
+     * @return configurations of a matrix build to copy artifacts from, or {@code null} to copy from all configurations.
+     */
+    public String getAxisFilter() {
+        return axisFilter;
+    }
+
+    /**
+     * @return modules of a Maven build to copy artifacts from, or {@code null} to copy from all modules.
+     */
+    public String getModuleFilter() {
+        return moduleFilter;
+    }
+
     private boolean upgradeIfNecessary(AbstractProject<?,?> job) throws IOException {
         if (isUpgradeNeeded()) {
             Jenkins jenkins = Jenkins.getInstance();
@@ -375,6 +570,87 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
 
     @Override
     public void perform(@Nonnull Run<?, ?> build, @Nonnull FilePath workspace, @Nonnull Launcher launcher, @Nonnull TaskListener listener) throws InterruptedException, IOException {
+        if (isDryRun()) {
+            plan(build, workspace, listener);
+            return;
+        }
+        CopyArtifactMetrics metrics = CopyArtifactMetrics.get();
+        metrics.started();
+        Source source = null;
+        boolean succeeded = false;
+        try {
+            source = resolve(build, listener);
+            if (select(source, build, listener)) {
+                CopySession session = new CopySession(listener, isFingerprintArtifacts(), isFlatten(), source.getStatistics());
+                try (TransferGovernor.Permit permit = TransferGovernor.get().acquire(source.getJob().getFullName(), listener)) {
+                    session.setPermit(permit);
+                    copy(source, build, workspace, session);
+                } finally {
+                    session.recordBuildFingerprints(build);
+                }
+            }
+            succeeded = true;
+        } finally {
+            if (source != null) {
+                CopyStatisticsAction.record(build, source.getStatistics());
+                metrics.finished(source.getStatistics(), succeeded);
+            } else {
+                // the project is not found or not readable.
+                metrics.failed();
+            }
+        }
+    }
+
+    /**
+     * Selects the build and reports files to copy without copying them.
+     *
+     * @param build the build copying artifacts
+     * @param workspace the directory to copy to
+     * @param listener where to report
+     * @return files to copy.
+     */
+    @Nonnull
+    CopyPlan plan(@Nonnull Run<?, ?> build, @Nonnull FilePath workspace, @Nonnull TaskListener listener) throws IOException, InterruptedException {
+        Source source = resolve(build, listener);
+        select(source, build, listener);
+        return plan(source, build, workspace, listener);
+    }
+
+    /**
+     * Reports files of the build selected with {@link #select(Source, Run, TaskListener)}
+     * without copying them.
+     *
+     * @param source the selected build
+     * @param build the build copying artifacts
+     * @param workspace the directory to copy to
+     * @param listener where to report
+     * @return files to copy, empty if no build is selected.
+     */
+    @Nonnull
+    CopyPlan plan(@Nonnull Source source, @Nonnull Run<?, ?> build, @Nonnull FilePath workspace, @Nonnull TaskListener listener) throws IOException, InterruptedException {
+        CopyPlan plan = new CopyPlan(source.expandedProject, workspace);
+        if (source.src != null) {
+            plan.setBuild(source.src);
+            CopySession session = new CopySession(listener, false, isFlatten(), null);
+            session.setPlan(plan);
+            copy(source, build, workspace, session);
+            plan.print(listener.getLogger());
+        }
+        return plan;
+    }
+
+    /**
+     * Expands variables and looks up the project to copy from.
+     *
+     * Does not select the build yet.
+     *
+     * @param build the build copying artifacts
+     * @param listener where to report
+     * @return the project to copy from with the environment to expand values.
+     * @throws AbortException when the project is not found or not accessible.
+     */
+    @Nonnull
+    Source resolve(@Nonnull Run<?, ?> build, @Nonnull TaskListener listener) throws IOException, InterruptedException {
         Jenkins jenkins = Jenkins.getInstance();
         if (jenkins == null) {
             throw new AbortException("Jenkins instance is unavailable.");
@@ -403,11 +679,7 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
             }
         }
 
-        PrintStream console = listener.getLogger();
-        String expandedProject = project, expandedFilter = filter;
-        String expandedExcludes = getExcludes();
-
-        expandedProject = env.expand(project);
+        String expandedProject = env.expand(project);
         Job<?, ?> job = jenkins.getItem(expandedProject, getItemGroup(build), Job.class);
         if (job != null && !expandedProject.equals(project)
             // If projectName is parameterized, need to do permission check on source project.
@@ -417,27 +689,67 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
         if (job == null) {
             throw new AbortException(Messages.CopyArtifact_MissingProject(expandedProject));
         }
-        Run src = selector.getBuild(job, env, parameters != null ? new ParametersBuildFilter(env.expand(parameters)) : new BuildFilter(), build);
+        return new Source(job, expandedProject, env);
+    }
+
+    /**
+     * Selects the build to copy from.
+     *
+     * @param source the project resolved with {@link #resolve(Run, TaskListener)}
+     * @param build the build copying artifacts
+     * @param listener where to report
+     * @return {@code false} if no build is found and the copy is optional.
+     * @throws AbortException when no build is found and the copy is not optional.
+     */
+    boolean select(@Nonnull Source source, @Nonnull Run<?, ?> build, @Nonnull TaskListener listener) throws IOException, InterruptedException {
+        CountingBuildFilter filter = new CountingBuildFilter(parameters != null ? new ParametersBuildFilter(source.env.expand(parameters)) : new BuildFilter());
+        long selectionStart = System.currentTimeMillis();
+        Run<?, ?> src = selector.getBuild(source.job, source.env, filter, build);
+        source.statistics.selected(src, System.currentTimeMillis() - selectionStart, filter.getCount());
+        source.src = src;
         if (src == null) {
-            String message = Messages.CopyArtifact_MissingBuild(expandedProject);
+            String message = Messages.CopyArtifact_MissingBuild(source.expandedProject);
             if (isOptional()) {
                 // just return without an error
-                console.println(message);
-                return;
+                listener.getLogger().println(message);
+                return false;
             } else {
                 // Fail build if copy is not optional
                 throw new AbortException(message);
             }
         }
+        return true;
+    }
+
+    /**
+     * Copies artifacts of the build selected with {@link #select(Source, Run, TaskListener)}.
+     *
+     * Fingerprints of copied files are added to {@code session}
+     * and should be recorded to {@code build} by the caller.
+     *
+     * @param source the selected build
+     * @param build the build copying artifacts
+     * @param workspace the directory to copy to
+     * @param session the state of the transfer
+     */
+    void copy(@Nonnull Source source, @Nonnull Run<?, ?> build, @Nonnull FilePath workspace, @Nonnull CopySession session) throws IOException, InterruptedException {
+        Jenkins jenkins = Jenkins.get();
+        Run src = source.src;
+        EnvVars env = source.env;
+        String expandedProject = source.expandedProject;
+        String expandedFilter;
+        String expandedExcludes = getExcludes();
         FilePath targetDir = workspace;
-        targetDir.mkdirs(); // being a SimpleBuildStep guarantees it will have a workspace, but the physical dir might not yet exist.
-        // Add info about the selected build into the environment
-        EnvAction envData = build.getAction(EnvAction.class);
-        if (envData == null) {
-            envData = new EnvAction();
-            build.addAction(envData);
-        }
-        envData.add(build, src, expandedProject, getResultVariableSuffix());
+        if (session.getPlan() == null) {
+            targetDir.mkdirs(); // being a SimpleBuildStep guarantees it will have a workspace, but the physical dir might not yet exist.
+            // Add info about the selected build into the environment
+            EnvAction envData = build.getAction(EnvAction.class);
+            if (envData == null) {
+                envData = new EnvAction();
+                build.addAction(envData);
+            }
+            envData.add(build, src, expandedProject, getResultVariableSuffix());
+        }
         if (target.length() > 0) targetDir = new FilePath(targetDir, env.expand(target));
         expandedFilter = env.expand(filter);
         if (expandedFilter.trim().length() == 0) expandedFilter = "**";
@@ -445,37 +757,78 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
         if (StringUtils.isBlank(expandedExcludes)) {
             expandedExcludes = null;
         }
+        session.setExtraction(isExtractArchives(), Util.fixEmptyAndTrim(env.expand(extractFilter)));
+        session.setPackAs(Util.fixEmptyAndTrim(env.expand(packAs)));
+        session.setDelta(isDeltaTransfer());
+        session.setCompression(getCompression());
+        session.setChecksum(getChecksum());
+        CopyJournal journal = null;
+        if (isResumable() && session.getPlan() == null && session.getPackAs() == null) {
+            journal = CopyJournal.load(targetDir);
+            session.setJournal(journal);
+        }
 
         if (jenkins.getPlugin("maven-plugin") != null && (src instanceof MavenModuleSetBuild) ) {
         // use classes in the "maven-plugin" plugin as might not be installed
             // Copy artifacts from the build (ArchiveArtifacts build step)
-            boolean ok = perform(src, build, expandedFilter, expandedExcludes, targetDir, listener);
+            boolean ok = perform(src, build, expandedFilter, expandedExcludes, targetDir, session);
+            String expandedModuleFilter = Util.fixEmptyAndTrim(env.expand(moduleFilter));
+            ModuleFilter modules = (expandedModuleFilter != null) ? new ModuleFilter(expandedModuleFilter) : null;
             // Copy artifacts from all modules of this Maven build (automatic archiving)
             for (Iterator<MavenBuild> it = ((MavenModuleSetBuild)src).getModuleLastBuilds().values().iterator(); it.hasNext(); ) {
                 // for(Run r: ....values()) causes upcasting and loading MavenBuild compiled with jdk 1.6.
                 // SEE https://wiki.jenkins-ci.org/display/JENKINS/Tips+for+optional+dependencies for details.
                 Run<?,?> r = it.next();
-                ok |= perform(r, build, expandedFilter, expandedExcludes, targetDir, listener);
+                if (modules != null && !modules.matches(r)) {
+                    continue;
+                }
+                ok |= perform(r, build, expandedFilter, expandedExcludes, targetDir, session);
             }
             if (!ok) {
                 throw new AbortException(Messages.CopyArtifact_FailedToCopy(expandedProject, expandedFilter));
             }
         } else if (src instanceof MatrixBuild) {
             boolean ok = false;
+            String expandedAxisFilter = Util.fixEmptyAndTrim(env.expand(axisFilter));
+            AxisFilter axes = (expandedAxisFilter != null) ? AxisFilter.parse(expandedAxisFilter) : null;
+            List<MatrixRun> runs = ((MatrixBuild) src).getExactRuns();
+            if (axes != null) {
+                // Select configurations before listing any artifacts
+                List<MatrixRun> matched = new ArrayList<>();
+                for (MatrixRun r : runs) {
+                    if (axes.matches(r.getParent().getCombination())) {
+                        matched.add(r);
+                    }
+                }
+                session.getListener().getLogger().println(Messages.CopyArtifact_MatchingConfigurations(matched.size(), runs.size(), axes));
+                if (matched.isEmpty()) {
+                    List<Combination> combinations = new ArrayList<>();
+                    for (MatrixRun r : runs) {
+                        combinations.add(r.getParent().getCombination());
+                    }
+                    session.getListener().getLogger().println(Messages.CopyArtifact_NoMatchingConfiguration(axes, AxisFilter.describe(combinations)));
+                    // e.g. a typo in the filter doesn't fail an optional copy
+                    ok = isOptional();
+                }
+                runs = matched;
+            }
             // Copy artifacts from all configurations of this matrix build
             // Use MatrixBuild.getExactRuns if available
-            for (Run r : ((MatrixBuild) src).getExactRuns())
+            for (Run r : runs)
                 // Use subdir of targetDir with configuration name (like "jdk=java6u20")
-                ok |= perform(r, build, expandedFilter, expandedExcludes, targetDir.child(r.getParent().getName()), listener);
+                ok |= perform(r, build, expandedFilter, expandedExcludes, targetDir.child(r.getParent().getName()), session);
 
             if (!ok) {
                 throw new AbortException(Messages.CopyArtifact_FailedToCopy(expandedProject, expandedFilter));
             }
         } else {
-            if (!perform(src, build, expandedFilter, expandedExcludes, targetDir, listener)) {
+            if (!perform(src, build, expandedFilter, expandedExcludes, targetDir, session)) {
                 throw new AbortException(Messages.CopyArtifact_FailedToCopy(expandedProject, expandedFilter));
             }
         }
+        if (journal != null) {
+            journal.delete();
+        }
     }
 
     private boolean canReadFrom(Job<?, ?> job, Run<?, ?> build) {
@@ -512,7 +865,7 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
         return b;
     }
 
-    private static Job<?, ?> getRootProject(Job<?, ?> job) {
+    static Job<?, ?> getRootProject(Job<?, ?> job) {
         if (job instanceof AbstractProject) {
             return ((AbstractProject<?,?>)job).getRootProject();
         } else {
@@ -526,61 +879,226 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
     }
 
 
-    private boolean perform(Run src, Run<?,?> dst, String expandedFilter, @CheckForNull String expandedExcludes, FilePath targetDir, TaskListener listener) throws IOException, InterruptedException {
-        PrintStream console = listener.getLogger();
+    private boolean perform(Run src, Run<?,?> dst, String expandedFilter, @CheckForNull String expandedExcludes, FilePath targetDir, CopySession session) throws IOException, InterruptedException {
+        PrintStream console = session.getListener().getLogger();
+        CopyStatisticsAction.Record statistics = session.getStatistics();
         VirtualFile srcDir = selector.getArtifacts(src, console);
         if (srcDir == null) {
             return isOptional();  // Fail build unless copy is optional
         }
+        if (session.getJournal() != null) {
+            session.getJournal().setSource(src.getExternalizableId());
+        }
+        ArtifactManager manager = src.getArtifactManager();
+        session.setLocalArtifacts(manager instanceof StandardArtifactManager && srcDir.toURI().equals(manager.root().toURI()));
+        session.setArtifactArchive(ZipArtifacts.getArchive(src, srcDir));
+        session.setSource(src.getExternalizableId());
         Map<String, String> fingerprints = null; // entry → MD5
         try {
-            fingerprints = copy(targetDir, srcDir, expandedFilter, expandedExcludes, isFingerprintArtifacts(), listener, isFlatten());
+            fingerprints = copy(targetDir, srcDir, expandedFilter, expandedExcludes, session);
             int cnt = fingerprints.size();
-            console.println(Messages.CopyArtifact_Copied(cnt, HyperlinkNote.encodeTo('/'+ src.getParent().getUrl(), src.getParent().getFullDisplayName()),
-                    HyperlinkNote.encodeTo('/'+src.getUrl(), Integer.toString(src.getNumber()))));
+            if (session.getPlan() == null) {
+                console.println(Messages.CopyArtifact_Copied(cnt, HyperlinkNote.encodeTo('/'+ src.getParent().getUrl(), src.getParent().getFullDisplayName()),
+                        HyperlinkNote.encodeTo('/'+src.getUrl(), Integer.toString(src.getNumber()))));
+            }
             // Fail build if 0 files copied unless copy is optional
             return cnt > 0 || isOptional();
         } finally {
             if (fingerprints != null) {
+                long fingerprintStart = System.currentTimeMillis();
                 Map<String, String> fingerprintsShallow = new HashMap<>();
                 FingerprintMap map = Jenkins.get().getFingerprintMap();
-                for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
-                    String name = entry.getKey().replaceFirst(".+/", "");
-                    String digest = entry.getValue();
-                    if (digest == null) {
-                        continue;
+                CopyArtifactMetrics metrics = CopyArtifactMetrics.get();
+                int pending = fingerprints.size();
+                metrics.recordingFingerprints(pending);
+                try {
+                    for (Map.Entry<String, String> entry : fingerprints.entrySet()) {
+                        String name = entry.getKey().replaceFirst(".+/", "");
+                        String digest = entry.getValue();
+                        if (digest != null) {
+                            fingerprintsShallow.put(name, digest);
+                            Fingerprint f = map.getOrCreate(src, name, digest);
+                            f.addFor(src);
+                            f.addFor(dst);
+                        }
+                        --pending;
+                        metrics.fingerprintsRecorded(1);
                     }
-                    fingerprintsShallow.put(name, digest);
-                    Fingerprint f = map.getOrCreate(src, name, digest);
-                    f.addFor(src);
-                    f.addFor(dst);
+                } finally {
+                    metrics.fingerprintsRecorded(pending);
                 }
                 if (!fingerprintsShallow.isEmpty()) {
-                    for (Run<?, ?> r : new Run<?, ?>[] {src, dst}) {
-                        Fingerprinter.FingerprintAction fa = r.getAction(Fingerprinter.FingerprintAction.class);
-                        if (fa != null) {
-                            fa.add(fingerprintsShallow);
-                        } else {
-                            r.addAction(new Fingerprinter.FingerprintAction(r, fingerprintsShallow));
-                        }
-                    }
+                    addFingerprints(src, fingerprintsShallow);
+                    session.addBuildFingerprints(fingerprintsShallow);
+                }
+                if (statistics != null) {
+                    statistics.fingerprinted(System.currentTimeMillis() - fingerprintStart);
                 }
             }
         }
     }
 
-    private static Map<String, String> copy(FilePath targetDir, VirtualFile srcDir, String expandedFilter, String expandedExcludes, boolean fingerprint, TaskListener listener, boolean flatten) throws IOException, InterruptedException {
-        targetDir.mkdirs();  // Create target if needed
-        Collection<String> list = srcDir.list(expandedFilter.replace('\\', '/'), expandedExcludes != null ? expandedExcludes.replace('\\', '/') : null, false);
+    /**
+     * Adds fingerprints to the {@link Fingerprinter.FingerprintAction} of a build.
+     *
+     * @param r the build to add fingerprints to
+     * @param fingerprints file names to digests
+     */
+    static void addFingerprints(@Nonnull Run<?, ?> r, @Nonnull Map<String, String> fingerprints) {
+        Fingerprinter.FingerprintAction fa = r.getAction(Fingerprinter.FingerprintAction.class);
+        if (fa != null) {
+            fa.add(fingerprints);
+        } else {
+            r.addAction(new Fingerprinter.FingerprintAction(r, fingerprints));
+        }
+    }
+
+    /**
+     * Copies artifacts matching the filter.
+     * Package scope for benchmarks.
+     *
+     * @return digests of copied entries, or {@code null} for entries without digests.
+     */
+    static Map<String, String> copy(FilePath targetDir, VirtualFile srcDir, String expandedFilter, String expandedExcludes, CopySession session) throws IOException, InterruptedException {
+        CopyStatisticsAction.Record statistics = session.getStatistics();
+        CopyPlan plan = session.getPlan();
+        if (plan == null) {
+            targetDir.mkdirs();  // Create target if needed
+        }
+        long listingStart = System.currentTimeMillis();
+        Collection<String> list = ArtifactLister.list(srcDir, expandedFilter.replace('\\', '/'), expandedExcludes != null ? expandedExcludes.replace('\\', '/') : null);
+        long transferStart = System.currentTimeMillis();
+        if (statistics != null) {
+            statistics.listed(transferStart - listingStart);
+        }
         Map<String, String> fingerprints = new HashMap<>();
-        for (String entry : list) {
-            String digest = copyOne(srcDir.child(entry), new FilePath(targetDir, flatten ? entry.replaceFirst(".+/", "") : entry), fingerprint, listener);
-            fingerprints.put(entry, digest);
+        if (plan != null) {
+            for (String entry : list) {
+                String name = session.isFlatten() ? entry.replaceFirst(".+/", "") : entry;
+                String target = session.getPackAs() != null
+                        ? targetDir.child(session.getPackAs()).getRemote() + "!/" + name
+                        : new FilePath(targetDir, name).getRemote();
+                plan.add(entry, target, srcDir.child(entry).length());
+                fingerprints.put(entry, null);
+            }
+        } else if (session.getPackAs() != null) {
+            pack(targetDir.child(session.getPackAs()), srcDir, list, fingerprints, session);
+        } else {
+            CopyJournal journal = session.getJournal();
+            ChecksumManifest manifest = null;
+            if (session.getChecksum() != ChecksumAlgorithm.NONE) {
+                manifest = new ChecksumManifest(session.getChecksum(), targetDir);
+            }
+            session.setManifest(manifest);
+            int[] resumed = new int[1];
+            boolean completed = false;
+            try {
+                Collection<String> remaining = list;
+                Map<String, String> staged = AgentArtifactCache.restore(targetDir, srcDir, list, session);
+                if (!staged.isEmpty()) {
+                    remaining = new ArrayList<>(list);
+                    remaining.removeAll(staged.keySet());
+                    for (Map.Entry<String, String> e : staged.entrySet()) {
+                        fingerprints.put(e.getKey(), e.getValue());
+                        if (statistics != null) {
+                            statistics.skipped();
+                        }
+                        if (manifest != null) {
+                            manifest.add(null, new FilePath(targetDir, session.isFlatten() ? e.getKey().replaceFirst(".+/", "") : e.getKey()));
+                        }
+                    }
+                    session.getListener().getLogger().println(Messages.CopyArtifact_PreStaged(staged.size()));
+                }
+                File archive = session.getArtifactArchive();
+                if (archive != null && remaining.size() > 1) {
+                    try (ZipArtifacts zip = new ZipArtifacts(archive)) {
+                        remaining = zip.read(remaining, (entry, in) -> {
+                            VirtualFile s = srcDir.child(entry);
+                            session.offer(s, in);
+                            try {
+                                if (copyEntry(entry, s, targetDir, fingerprints, session)) {
+                                    ++resumed[0];
+                                }
+                            } finally {
+                                session.offer(null, null);
+                            }
+                        });
+                    }
+                }
+                for (String entry : remaining) {
+                    if (copyEntry(entry, srcDir.child(entry), targetDir, fingerprints, session)) {
+                        ++resumed[0];
+                    }
+                }
+                completed = true;
+            } finally {
+                if (journal != null) {
+                    try {
+                        journal.flush();
+                    } catch (IOException x) {
+                        if (completed) {
+                            throw x;
+                        }
+                        // don't hide the original failure, likely the same channel problem.
+                        LOGGER.log(Level.WARNING, "Failed to update the journal in " + targetDir, x);
+                    }
+                }
+            }
+            if (resumed[0] > 0) {
+                session.getListener().getLogger().println(Messages.CopyArtifact_Resumed(resumed[0]));
+            }
+            session.applyMetadata();
+            if (manifest != null) {
+                session.setManifest(null);
+                if (manifest.size() > 0) {
+                    manifest.write();
+                    session.getListener().getLogger().println(Messages.CopyArtifact_Checksums(manifest.size(), session.getChecksum().getManifestName()));
+                }
+            }
+        }
+        if (statistics != null) {
+            statistics.transferred(System.currentTimeMillis() - transferStart);
         }
         return fingerprints;
     }
 
-    private static MessageDigest md5() {
+    /**
+     * Copies an entry unless a previous attempt copied it.
+     *
+     * @param fingerprints where to put the digest of the entry
+     * @return {@code true} if the entry was copied by a previous attempt.
+     */
+    private static boolean copyEntry(String entry, VirtualFile s, FilePath targetDir, Map<String, String> fingerprints, CopySession session) throws IOException, InterruptedException {
+        CopyJournal journal = session.getJournal();
+        FilePath d = new FilePath(targetDir, session.isFlatten() ? entry.replaceFirst(".+/", "") : entry);
+        if (journal == null) {
+            fingerprints.put(entry, copyOne(s, d, session));
+            return false;
+        }
+        long length = s.length();
+        CopyJournal.Done done = journal.get(entry, length);
+        if (done != null && (done.getDigest() != null || !session.isFingerprint())) {
+            // copied by a previous attempt
+            CopyStatisticsAction.Record statistics = session.getStatistics();
+            if (statistics != null) {
+                statistics.skipped();
+            }
+            if (session.getMetadata() != null) {
+                session.getMetadata().file(d, s.lastModified(), s.mode());
+            }
+            fingerprints.put(entry, session.isFingerprint() ? done.getDigest() : null);
+            if (session.getManifest() != null) {
+                session.getManifest().add(null, d);
+            }
+            return true;
+        }
+        String digest = copyOne(s, d, session);
+        fingerprints.put(entry, digest);
+        journal.record(entry, length, digest, s.lastModified(), d);
+        return false;
+    }
+
+    static MessageDigest md5() {
         try {
             return MessageDigest.getInstance("MD5");
         } catch (NoSuchAlgorithmException x) {
@@ -588,37 +1106,118 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
         }
     }
 
-    private static String copyOne(VirtualFile s, FilePath d, boolean fingerprint, TaskListener listener) throws IOException, InterruptedException {
+    /**
+     * Copies a single entry.
+     *
+     * @param session the state of the copy this entry belongs to.
+     */
+    private static String copyOne(VirtualFile s, FilePath d, CopySession session) throws IOException, InterruptedException {
+        TaskListener listener = session.getListener();
+        MetadataBatch metadata = session.getMetadata();
+        CopyStatisticsAction.Record statistics = session.getStatistics();
         String link = s.readLink();
         if (link != null) {
+            if (statistics != null) {
+                statistics.skipped();
+            }
+            if (metadata != null) {
+                metadata.symlink(d, link);
+                return null;
+            }
             d.getParent().mkdirs();
             d.symlinkTo(link, listener);
             return null;
         }
         try {
-            URL u = s.toExternalURL();
-            byte[] digest;
-            if (u != null) {
-                if (fingerprint) {
-                    digest = d.act(new CopyURLWithFingerprinting(u, listener));
-                } else {
-                    new RobustHTTPClient().copyFromRemotely(d, u, listener);
-                    digest = null;
+            if (session.isExtract() && ArchiveExtractor.isArchive(d.getName())) {
+                return extract(s, d, session);
+            }
+            byte[] digest = null;
+            long length = -1;
+            SingleFlightCopy flight = SingleFlightCopy.begin(s, d);
+            if (flight != null && !flight.isLeader()) {
+                // the same artifact is being copied to this agent by another copy.
+                // let other copies run while waiting; the slot stays released if this fails.
+                TransferGovernor.Permit permit = session.getPermit();
+                if (permit != null) {
+                    permit.suspend();
                 }
-            } else {
-                if (fingerprint) {
-                    MessageDigest md5 = md5();
-                    try (InputStream is = s.open(); OutputStream os = d.write()) {
-                        IOUtils.copy(is, new DigestOutputStream(os, md5));
+                byte[] md5 = flight.follow(d);
+                if (permit != null) {
+                    permit.resume(listener);
+                }
+                if (md5 != null) {
+                    digest = session.isFingerprint() ? md5 : null;
+                    length = s.length();
+                }
+            }
+            if (length < 0) {
+                boolean landed = false;
+                // followers verify the landed file with the digest calculated by the leader.
+                boolean hashing = session.isFingerprint() || flight != null;
+                byte[] md5 = null;
+                try {
+                    URL u = s.toExternalURL();
+                    if (u != null) {
+                        if (hashing) {
+                            md5 = d.act(new CopyURLWithFingerprinting(u, listener));
+                        } else {
+                            new RobustHTTPClient().copyFromRemotely(d, u, listener);
+                        }
+                        length = s.length();
+                    } else if (session.isLocalArtifacts() && !d.isRemote() && !session.isThrottled()) {
+                        // both are files on the controller.
+                        ChecksumManifest manifest = session.getManifest();
+                        md5 = LocalTransfer.copy(new File(s.toURI()), new File(d.getRemote()), hashing, manifest != null ? manifest.begin(s) : null);
+                        length = s.length();
+                    } else {
+                        byte[] delta = session.isDelta() ? DeltaTransfer.copy(s, d, session) : null;
+                        if (delta != null) {
+                            md5 = delta;
+                            length = s.length();
+                        } else if (session.getCompression() != TransferCompression.NONE) {
+                            MessageDigest md = hashing ? TransferContext.get().md5() : null;
+                            try (CountingInputStream is = new CountingInputStream(session.open(s))) {
+                                // digest the artifact rather than the compressed stream.
+                                CompressedTransfer.copy(md != null ? new DigestInputStream(is, md) : is, d, session.getCompression());
+                                length = is.getByteCount();
+                            }
+                            md5 = md != null ? md.digest() : null;
+                        } else if (hashing) {
+                            TransferContext context = TransferContext.get();
+                            MessageDigest md = context.md5();
+                            try (InputStream is = session.open(s); OutputStream os = d.write()) {
+                                length = PipelinedDigest.ENABLED ? PipelinedDigest.copy(is, os, md) : context.copy(is, os, md);
+                            }
+                            md5 = md.digest();
+                        } else {
+                            try (CountingInputStream is = new CountingInputStream(session.open(s))) {
+                                d.copyFrom(is);
+                                length = is.getByteCount();
+                            }
+                        }
                     }
-                    digest = md5.digest();
-                } else {
-                    try (InputStream is = s.open()) {
-                        d.copyFrom(is);
+                    digest = session.isFingerprint() ? md5 : null;
+                    if (flight != null) {
+                        flight.land(d, md5);
+                        landed = true;
+                    }
+                } finally {
+                    if (flight != null && !landed) {
+                        flight.land(null, null);
                     }
-                    digest = null;
                 }
             }
+            if (statistics != null) {
+                statistics.file(length);
+            }
+            if (session.getManifest() != null) {
+                session.getManifest().add(s, d);
+            }
+            if (metadata != null) {
+                metadata.file(d, s.lastModified(), s.mode());
+                return digest != null ? Util.toHexString(digest) : null;
+            }
             // FilePath.setLastModifiedIfPossible private; copyToWithPermission OK but would have to calc digest separately:
             try {
                 d.touch(s.lastModified());
@@ -635,11 +1234,89 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
         }
     }
 
+    /**
+     * Packs entries into a single archive written to the agent,
+     * streaming artifacts without creating individual files.
+     *
+     * @param d the archive to write
+     * @param fingerprints where to put digests of packed entries
+     */
+    private static void pack(FilePath d, VirtualFile srcDir, Collection<String> list, Map<String, String> fingerprints, CopySession session) throws IOException, InterruptedException {
+        CopyStatisticsAction.Record statistics = session.getStatistics();
+        PrintStream console = session.getListener().getLogger();
+        if (!ArchivePacker.isSupported(d.getName())) {
+            throw new AbortException(Messages.CopyArtifact_UnsupportedArchive(d.getName()));
+        }
+        int packed = 0;
+        try (ArchivePacker packer = ArchivePacker.create(d.getName(), new BufferedOutputStream(d.write()))) {
+            for (String entry : list) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                VirtualFile s = srcDir.child(entry);
+                String path = session.isFlatten() ? entry.replaceFirst(".+/", "") : entry;
+                String link = s.readLink();
+                if (link != null) {
+                    if (statistics != null) {
+                        statistics.skipped();
+                    }
+                    if (packer.addSymlink(path, link)) {
+                        fingerprints.put(entry, null);
+                        ++packed;
+                    }
+                    continue;
+                }
+                MessageDigest md5 = session.isFingerprint() ? TransferContext.get().md5() : null;
+                boolean added;
+                long length;
+                try (CountingInputStream is = new CountingInputStream(session.open(s))) {
+                    InputStream in = (md5 != null) ? new DigestInputStream(is, md5) : is;
+                    added = packer.addFile(path, s.lastModified(), s.mode(), s.length(), in);
+                    length = is.getByteCount();
+                }
+                if (!added) {
+                    console.println(Messages.CopyArtifact_DuplicateInArchive(path, d.getName()));
+                    continue;
+                }
+                if (statistics != null) {
+                    statistics.file(length);
+                }
+                fingerprints.put(entry, md5 != null ? Util.toHexString(md5.digest()) : null);
+                ++packed;
+            }
+        }
+        console.println(Messages.CopyArtifact_Packed(packed, d.getName()));
+    }
+
+    /**
+     * Extracts an archive into the directory it would be copied to.
+     * Entries are extracted on the agent while streaming the archive from the controller.
+     *
+     * @return the digest of the archive itself.
+     */
+    private static String extract(VirtualFile s, FilePath d, CopySession session) throws IOException, InterruptedException {
+        CopyStatisticsAction.Record statistics = session.getStatistics();
+        MessageDigest md5 = session.isFingerprint() ? TransferContext.get().md5() : null;
+        int extracted;
+        long length;
+        try (CountingInputStream is = new CountingInputStream(session.open(s))) {
+            InputStream in = (md5 != null) ? new DigestInputStream(is, md5) : is;
+            extracted = d.getParent().act(new ArchiveExtractor(d.getName(), new RemoteInputStream(in, RemoteInputStream.Flag.GREEDY), session.getExtractFilter()));
+            length = is.getByteCount();
+        }
+        if (statistics != null) {
+            statistics.file(length);
+        }
+        session.getListener().getLogger().println(Messages.CopyArtifact_Extracted(extracted, s.getName()));
+        return md5 != null ? Util.toHexString(md5.digest()) : null;
+    }
+
     private static class CopyURLWithFingerprinting extends MasterToSlaveFileCallable<byte[]> {
         private static final long serialVersionUID = 1;
         private final URL u;
         private final TaskListener listener;
         private final RobustHTTPClient client = new RobustHTTPClient();
+        private final boolean pipelined = PipelinedDigest.ENABLED;
         CopyURLWithFingerprinting(URL u, TaskListener listener) {
             this.u = u;
             this.listener = listener;
@@ -647,10 +1324,16 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
         @Override
         public byte[] invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
             hudson.util.IOUtils.mkdirs(f.getParentFile());
-            MessageDigest md5 = md5();
+            TransferContext context = TransferContext.get();
+            MessageDigest md5 = context.md5();
             client.connect("download", "download " + RobustHTTPClient.sanitize(u) + " to " + f, c -> c.execute(new HttpGet(u.toString())), response -> {
+                md5.reset();
                 try (InputStream is = response.getEntity().getContent(); OutputStream os = new FileOutputStream(f)) {
-                    IOUtils.copy(is, new DigestOutputStream(os, md5));
+                    if (pipelined) {
+                        PipelinedDigest.copy(is, os, md5);
+                    } else {
+                        context.copy(is, os, md5);
+                    }
                 }
             }, listener);
             return md5.digest();
@@ -743,6 +1426,20 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
             return FormValidation.ok();
         }
 
+        public FormValidation doCheckAxisFilter(@QueryParameter String value) {
+            value = Util.fixEmptyAndTrim(value);
+            if (value == null || value.indexOf('$') >= 0) {
+                // optional field, or evaluated only in builds.
+                return FormValidation.ok();
+            }
+            try {
+                AxisFilter.parse(value);
+            } catch (AbortException x) {
+                return FormValidation.error(x.getMessage());
+            }
+            return FormValidation.ok();
+        }
+
         public boolean isApplicable(Class<? extends AbstractProject> clazz) {
             return true;
         }
@@ -809,6 +1506,66 @@ public class CopyArtifact extends Builder implements SimpleBuildStep {
         }
     }
 
+    /**
+     * The project to copy from resolved by {@link CopyArtifact#resolve(Run, TaskListener)},
+     * and the build selected by {@link CopyArtifact#select(Source, Run, TaskListener)}.
+     */
+    static final class Source {
+        private final Job<?, ?> job;
+        private final String expandedProject;
+        private final EnvVars env;
+        private final CopyStatisticsAction.Record statistics;
+        @CheckForNull
+        private Run<?, ?> src;
+
+        Source(@Nonnull Job<?, ?> job, @Nonnull String expandedProject, @Nonnull EnvVars env) {
+            this.job = job;
+            this.expandedProject = expandedProject;
+            this.env = env;
+            this.statistics = new CopyStatisticsAction.Record(job.getFullName());
+        }
+
+        @Nonnull
+        Job<?, ?> getJob() {
+            return job;
+        }
+
+        @Nonnull
+        CopyStatisticsAction.Record getStatistics() {
+            return statistics;
+        }
+
+        /**
+         * @return the selected build, or {@code null} if not selected yet or not found.
+         */
+        @CheckForNull
+        Run<?, ?> getBuild() {
+            return src;
+        }
+    }
+
+    /**
+     * Counts builds examined while selecting the build to copy from.
+     */
+    private static class CountingBuildFilter extends BuildFilter {
+        private final BuildFilter filter;
+        private int count;
+
+        CountingBuildFilter(BuildFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean isSelectable(Run<?, ?> run, EnvVars env) {
+            ++count;
+            return filter.isSelectable(run, env);
+        }
+
+        int getCount() {
+            return count;
+        }
+    }
+
     private static class EnvAction implements EnvironmentContributingAction {
         // Decided not to record this data in build.xml, so marked transient:
         private transient Map<String,String> data = new HashMap<String,String>();
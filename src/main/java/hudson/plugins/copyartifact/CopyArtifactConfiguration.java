@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.util.FormValidation;
+import javax.annotation.CheckForNull;
+import jenkins.model.GlobalConfiguration;
+import net.sf.json.JSONObject;
+import org.jenkinsci.Symbol;
+import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest;
+
+/**
+ * Global settings of Copy Artifact plugin.
+ *
+ * Limits copies performed by all builds at the same time,
+ * so that many downstream builds started at once don't saturate the disk and the network of the controller.
+ * All limits are disabled with 0.
+ * Small artifacts copied by many builds can be cached in the controller heap,
+ * and artifacts can be staged in agents before builds copying them start.
+ */
+@Extension @Symbol("copyArtifact")
+public class CopyArtifactConfiguration extends GlobalConfiguration {
+    private int maxConcurrentCopies;
+    private int maxConcurrentCopiesPerProject;
+    private long maxBytesPerSecond;
+    private long maxBytesPerSecondPerProject;
+    private long artifactCacheSize;
+    private long artifactCacheMaxEntrySize = 64 * 1024;
+    private boolean preStageArtifacts;
+
+    public CopyArtifactConfiguration() {
+        load();
+    }
+
+    /**
+     * @return the configuration, or {@code null} if Jenkins is not running.
+     */
+    @CheckForNull
+    public static CopyArtifactConfiguration get() {
+        return GlobalConfiguration.all().get(CopyArtifactConfiguration.class);
+    }
+
+    public int getMaxConcurrentCopies() {
+        return maxConcurrentCopies;
+    }
+
+    /**
+     * @param maxConcurrentCopies the maximum number of copies performed at the same time. 0 for no limit.
+     */
+    @DataBoundSetter
+    public void setMaxConcurrentCopies(int maxConcurrentCopies) {
+        this.maxConcurrentCopies = Math.max(0, maxConcurrentCopies);
+    }
+
+    public int getMaxConcurrentCopiesPerProject() {
+        return maxConcurrentCopiesPerProject;
+    }
+
+    /**
+     * @param maxConcurrentCopiesPerProject the maximum number of copies from the same project performed at the same time. 0 for no limit.
+     */
+    @DataBoundSetter
+    public void setMaxConcurrentCopiesPerProject(int maxConcurrentCopiesPerProject) {
+        this.maxConcurrentCopiesPerProject = Math.max(0, maxConcurrentCopiesPerProject);
+    }
+
+    public long getMaxBytesPerSecond() {
+        return maxBytesPerSecond;
+    }
+
+    /**
+     * @param maxBytesPerSecond the maximum bytes per second transferred by all copies. 0 for no limit.
+     */
+    @DataBoundSetter
+    public void setMaxBytesPerSecond(long maxBytesPerSecond) {
+        this.maxBytesPerSecond = Math.max(0, maxBytesPerSecond);
+    }
+
+    public long getMaxBytesPerSecondPerProject() {
+        return maxBytesPerSecondPerProject;
+    }
+
+    /**
+     * @param maxBytesPerSecondPerProject the maximum bytes per second transferred by copies from the same project. 0 for no limit.
+     */
+    @DataBoundSetter
+    public void setMaxBytesPerSecondPerProject(long maxBytesPerSecondPerProject) {
+        this.maxBytesPerSecondPerProject = Math.max(0, maxBytesPerSecondPerProject);
+    }
+
+    public long getArtifactCacheSize() {
+        return artifactCacheSize;
+    }
+
+    /**
+     * @param artifactCacheSize the maximum total bytes of artifacts cached in the controller heap. 0 not to cache.
+     */
+    @DataBoundSetter
+    public void setArtifactCacheSize(long artifactCacheSize) {
+        this.artifactCacheSize = Math.max(0, artifactCacheSize);
+    }
+
+    public long getArtifactCacheMaxEntrySize() {
+        return artifactCacheMaxEntrySize;
+    }
+
+    /**
+     * @param artifactCacheMaxEntrySize the maximum bytes of an artifact to cache.
+     */
+    @DataBoundSetter
+    public void setArtifactCacheMaxEntrySize(long artifactCacheMaxEntrySize) {
+        this.artifactCacheMaxEntrySize = Math.max(0, artifactCacheMaxEntrySize);
+    }
+
+    public boolean isPreStageArtifacts() {
+        return preStageArtifacts;
+    }
+
+    /**
+     * @param preStageArtifacts whether to stage artifacts of completed builds in idle agents of projects copying them.
+     */
+    @DataBoundSetter
+    public void setPreStageArtifacts(boolean preStageArtifacts) {
+        this.preStageArtifacts = preStageArtifacts;
+    }
+
+    @Override
+    public boolean configure(StaplerRequest req, JSONObject json) throws FormException {
+        req.bindJSON(this, json);
+        save();
+        TransferGovernor.get().configurationChanged();
+        ArtifactCache.get().configurationChanged();
+        return true;
+    }
+
+    public FormValidation doCheckMaxConcurrentCopies(@QueryParameter String value) {
+        return checkLimit(value, Integer.MAX_VALUE);
+    }
+
+    public FormValidation doCheckMaxConcurrentCopiesPerProject(@QueryParameter String value) {
+        return checkLimit(value, Integer.MAX_VALUE);
+    }
+
+    public FormValidation doCheckMaxBytesPerSecond(@QueryParameter String value) {
+        return checkLimit(value, Long.MAX_VALUE);
+    }
+
+    public FormValidation doCheckMaxBytesPerSecondPerProject(@QueryParameter String value) {
+        return checkLimit(value, Long.MAX_VALUE);
+    }
+
+    private static FormValidation checkLimit(String value, long max) {
+        value = Util.fixEmptyAndTrim(value);
+        if (value == null) {
+            // no limit.
+            return FormValidation.ok();
+        }
+        long limit;
+        try {
+            limit = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return FormValidation.error(Messages.CopyArtifactConfiguration_InvalidLimit());
+        }
+        if (limit < 0 || limit > max) {
+            return FormValidation.error(Messages.CopyArtifactConfiguration_InvalidLimit());
+        }
+        return FormValidation.ok();
+    }
+}
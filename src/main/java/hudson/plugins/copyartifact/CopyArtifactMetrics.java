@@ -0,0 +1,343 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.model.Api;
+import hudson.model.Item;
+import hudson.model.RootAction;
+import hudson.model.listeners.ItemListener;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.Nonnull;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jenkins.model.Jenkins;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Plugin-wide metrics of copy artifact steps.
+ *
+ * Available via JMX as {@value #OBJECT_NAME}
+ * and as JSON in {@code /copyartifact-metrics/api/json} for administrators.
+ */
+@Extension
+@ExportedBean
+public class CopyArtifactMetrics implements RootAction, CopyArtifactMetricsMXBean {
+    private static final Logger LOGGER = Logger.getLogger(CopyArtifactMetrics.class.getName());
+
+    /**
+     * The name this is registered to the platform MBean server with.
+     */
+    public static final String OBJECT_NAME = "hudson.plugins.copyartifact:type=CopyArtifactMetrics";
+
+    /**
+     * Upper bounds (exclusive, in milliseconds) of buckets of selection latencies.
+     * The last bucket has no upper bound.
+     */
+    private static final long[] LATENCY_BUCKETS = {10, 100, 1000, 10000};
+
+    private final AtomicInteger activeCopies = new AtomicInteger();
+    private final AtomicLong completedCopies = new AtomicLong();
+    private final AtomicLong failedCopies = new AtomicLong();
+    private final AtomicLong transferredBytes = new AtomicLong();
+    private final AtomicInteger fingerprintsInProgress = new AtomicInteger();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final AtomicLongArray selectionLatencies = new AtomicLongArray(LATENCY_BUCKETS.length + 1);
+    /**
+     * Metrics by the full name of the source project.
+     * Entries are removed or renamed with the project by {@link ProjectListener}.
+     */
+    private final ConcurrentMap<String, ProjectMetrics> projects = new ConcurrentHashMap<>();
+
+    /**
+     * @return the singleton instance.
+     */
+    @Nonnull
+    public static CopyArtifactMetrics get() {
+        return ExtensionList.lookupSingleton(CopyArtifactMetrics.class);
+    }
+
+    @Initializer(after = InitMilestone.EXTENSIONS_AUGMENTED)
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                // e.g. restarted in the same JVM
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(get(), name);
+        } catch (JMException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to register copy artifact metrics to JMX", e);
+        }
+    }
+
+    static void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Failed to unregister copy artifact metrics from JMX", e);
+        }
+    }
+
+    /**
+     * Called when a copy artifact step starts.
+     */
+    void started() {
+        activeCopies.incrementAndGet();
+    }
+
+    /**
+     * Called when a copy artifact step finishes.
+     *
+     * @param statistics statistics of the finished step
+     * @param succeeded whether the step succeeded
+     */
+    void finished(@Nonnull CopyStatisticsAction.Record statistics, boolean succeeded) {
+        activeCopies.decrementAndGet();
+        (succeeded ? completedCopies : failedCopies).incrementAndGet();
+        selectionLatencies.incrementAndGet(bucketOf(statistics.getSelectionTime()));
+        transferredBytes.addAndGet(statistics.getBytes());
+        projects.computeIfAbsent(statistics.getProjectName(), k -> new ProjectMetrics()).add(statistics.getBytes(), statistics.getTransferTime());
+    }
+
+    /**
+     * Called when a copy artifact step fails before finding the project to copy from.
+     */
+    void failed() {
+        activeCopies.decrementAndGet();
+        failedCopies.incrementAndGet();
+    }
+
+    /**
+     * @param count the number of fingerprints a copy starts recording
+     */
+    void recordingFingerprints(int count) {
+        fingerprintsInProgress.addAndGet(count);
+    }
+
+    /**
+     * @param count the number of fingerprints that are recorded or given up
+     */
+    void fingerprintsRecorded(int count) {
+        fingerprintsInProgress.addAndGet(-count);
+    }
+
+    /**
+     * Called when an artifact is read from {@link ArtifactCache}.
+     */
+    void cacheHit() {
+        cacheHits.incrementAndGet();
+    }
+
+    /**
+     * Called when an artifact small enough to be cached is not in {@link ArtifactCache}.
+     */
+    void cacheMissed() {
+        cacheMisses.incrementAndGet();
+    }
+
+    private static int bucketOf(long latency) {
+        for (int i = 0; i < LATENCY_BUCKETS.length; ++i) {
+            if (latency < LATENCY_BUCKETS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKETS.length;
+    }
+
+    @Override
+    @Exported
+    public int getActiveCopies() {
+        return activeCopies.get();
+    }
+
+    @Override
+    @Exported
+    public long getCompletedCopies() {
+        return completedCopies.get();
+    }
+
+    @Override
+    @Exported
+    public long getFailedCopies() {
+        return failedCopies.get();
+    }
+
+    @Override
+    @Exported
+    public long getTransferredBytes() {
+        return transferredBytes.get();
+    }
+
+    @Override
+    @Exported
+    public int getFingerprintsInProgress() {
+        return fingerprintsInProgress.get();
+    }
+
+    @Override
+    @Exported
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    @Override
+    @Exported
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    @Override
+    @Exported
+    public long getCachedBytes() {
+        return ArtifactCache.get().getSize();
+    }
+
+    @Override
+    @Exported
+    public Map<String, Long> getBytesPerSecondByProject() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, ProjectMetrics> entry : projects.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().getBytesPerSecond());
+        }
+        return result;
+    }
+
+    @Override
+    @Exported
+    public Map<String, Long> getSelectionLatencyHistogram() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < LATENCY_BUCKETS.length; ++i) {
+            result.put("<" + LATENCY_BUCKETS[i] + "ms", selectionLatencies.get(i));
+        }
+        result.put(">=" + LATENCY_BUCKETS[LATENCY_BUCKETS.length - 1] + "ms", selectionLatencies.get(LATENCY_BUCKETS.length));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Exposes metrics as JSON or XML. Requires the administer permission.
+     *
+     * @return the REST API.
+     */
+    public Api getApi() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+        return new Api(this);
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return "copyartifact-metrics";
+    }
+
+    private void projectDeleted(String fullName) {
+        projects.keySet().removeIf(name -> name.equals(fullName) || name.startsWith(fullName + '/'));
+    }
+
+    private void projectRenamed(String oldFullName, String newFullName) {
+        for (String name : projects.keySet()) {
+            if (name.equals(oldFullName) || name.startsWith(oldFullName + '/')) {
+                ProjectMetrics metrics = projects.remove(name);
+                if (metrics != null) {
+                    projects.merge(newFullName + name.substring(oldFullName.length()), metrics, ProjectMetrics::merge);
+                }
+            }
+        }
+    }
+
+    /**
+     * Keeps metrics by project in sync with deleted and renamed projects.
+     */
+    @Extension
+    public static class ProjectListener extends ItemListener {
+        @Override
+        public void onDeleted(Item item) {
+            get().projectDeleted(item.getFullName());
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            get().projectRenamed(oldFullName, newFullName);
+        }
+    }
+
+    private static class ProjectMetrics {
+        private long bytes;
+        private long transferTime;
+
+        synchronized void add(long bytes, long transferTime) {
+            this.bytes += bytes;
+            this.transferTime += transferTime;
+        }
+
+        static ProjectMetrics merge(ProjectMetrics a, ProjectMetrics b) {
+            ProjectMetrics merged = new ProjectMetrics();
+            synchronized (a) {
+                merged.add(a.bytes, a.transferTime);
+            }
+            synchronized (b) {
+                merged.add(b.bytes, b.transferTime);
+            }
+            return merged;
+        }
+
+        synchronized long getBytesPerSecond() {
+            if (transferTime <= 0) {
+                return 0;
+            }
+            return bytes * 1000 / transferTime;
+        }
+    }
+}
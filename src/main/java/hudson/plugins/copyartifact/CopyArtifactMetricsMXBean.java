@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link CopyArtifactMetrics}.
+ */
+public interface CopyArtifactMetricsMXBean {
+    /**
+     * @return the number of copy artifact steps running now.
+     */
+    int getActiveCopies();
+
+    /**
+     * @return the number of copy artifact steps finished successfully.
+     */
+    long getCompletedCopies();
+
+    /**
+     * @return the number of copy artifact steps failed.
+     */
+    long getFailedCopies();
+
+    /**
+     * @return the number of bytes copied in total.
+     */
+    long getTransferredBytes();
+
+    /**
+     * @return the number of fingerprints being recorded by copies now.
+     */
+    int getFingerprintsInProgress();
+
+    /**
+     * @return the number of artifacts read from the controller-side cache.
+     */
+    long getCacheHits();
+
+    /**
+     * @return the number of cacheable artifacts read from the artifact storage.
+     */
+    long getCacheMisses();
+
+    /**
+     * @return the number of bytes in the controller-side cache.
+     */
+    long getCachedBytes();
+
+    /**
+     * @return average transferred bytes per second for each source project.
+     */
+    Map<String, Long> getBytesPerSecondByProject();
+
+    /**
+     * @return the number of build selections for each latency bucket.
+     */
+    Map<String, Long> getSelectionLatencyHistogram();
+}
@@ -29,4 +29,10 @@ import hudson.Plugin;
  * Copy Artifact plugin.
  */
 public class CopyArtifactPlugin extends Plugin {
+    @Override
+    public void stop() throws Exception {
+        CopyArtifactMetrics.unregisterMBean();
+        CopyArtifactStepExecution.shutdown();
+        PipelinedDigest.shutdown();
+    }
 }
@@ -0,0 +1,281 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import com.google.common.collect.ImmutableSet;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+import org.kohsuke.stapler.DataBoundSetter;
+
+/**
+ * Pipeline step to copy artifacts from another project
+ * without holding the thread running the pipeline.
+ *
+ * Accepts the same arguments as {@code copyArtifacts}.
+ * Selecting the build and transferring files are performed in a dedicated thread pool.
+ * With {@code wait: false}, the step returns a handle immediately,
+ * which is passed to {@code waitForCopyArtifacts} to wait for the copy.
+ * With {@code dryRun: true}, the step returns files to copy as a map without copying them.
+ */
+public class CopyArtifactStep extends Step {
+    private final CopyArtifact copyArtifact;
+    private boolean wait = true;
+
+    @DataBoundConstructor
+    public CopyArtifactStep(String projectName) {
+        this.copyArtifact = new CopyArtifact(projectName);
+    }
+
+    public String getProjectName() {
+        return copyArtifact.getProjectName();
+    }
+
+    public String getParameters() {
+        return copyArtifact.getParameters();
+    }
+
+    @DataBoundSetter
+    public void setParameters(String parameters) {
+        copyArtifact.setParameters(parameters);
+    }
+
+    public BuildSelector getSelector() {
+        return copyArtifact.getSelector();
+    }
+
+    @DataBoundSetter
+    public void setSelector(@Nonnull BuildSelector selector) {
+        copyArtifact.setSelector(selector);
+    }
+
+    public String getFilter() {
+        return copyArtifact.getFilter();
+    }
+
+    @DataBoundSetter
+    public void setFilter(String filter) {
+        copyArtifact.setFilter(filter);
+    }
+
+    public String getExcludes() {
+        return copyArtifact.getExcludes();
+    }
+
+    @DataBoundSetter
+    public void setExcludes(String excludes) {
+        copyArtifact.setExcludes(excludes);
+    }
+
+    public String getTarget() {
+        return copyArtifact.getTarget();
+    }
+
+    @DataBoundSetter
+    public void setTarget(String target) {
+        copyArtifact.setTarget(target);
+    }
+
+    public boolean isFlatten() {
+        return copyArtifact.isFlatten();
+    }
+
+    @DataBoundSetter
+    public void setFlatten(boolean flatten) {
+        copyArtifact.setFlatten(flatten);
+    }
+
+    public boolean isOptional() {
+        return copyArtifact.isOptional();
+    }
+
+    @DataBoundSetter
+    public void setOptional(boolean optional) {
+        copyArtifact.setOptional(optional);
+    }
+
+    public boolean isFingerprintArtifacts() {
+        return copyArtifact.isFingerprintArtifacts();
+    }
+
+    @DataBoundSetter
+    public void setFingerprintArtifacts(boolean fingerprintArtifacts) {
+        copyArtifact.setFingerprintArtifacts(fingerprintArtifacts);
+    }
+
+    public String getResultVariableSuffix() {
+        return copyArtifact.getResultVariableSuffix();
+    }
+
+    @DataBoundSetter
+    public void setResultVariableSuffix(String resultVariableSuffix) {
+        copyArtifact.setResultVariableSuffix(resultVariableSuffix);
+    }
+
+    public boolean isExtractArchives() {
+        return copyArtifact.isExtractArchives();
+    }
+
+    @DataBoundSetter
+    public void setExtractArchives(boolean extractArchives) {
+        copyArtifact.setExtractArchives(extractArchives);
+    }
+
+    public String getExtractFilter() {
+        return copyArtifact.getExtractFilter();
+    }
+
+    @DataBoundSetter
+    public void setExtractFilter(String extractFilter) {
+        copyArtifact.setExtractFilter(extractFilter);
+    }
+
+    public String getPackAs() {
+        return copyArtifact.getPackAs();
+    }
+
+    @DataBoundSetter
+    public void setPackAs(String packAs) {
+        copyArtifact.setPackAs(packAs);
+    }
+
+    public boolean isResumable() {
+        return copyArtifact.isResumable();
+    }
+
+    @DataBoundSetter
+    public void setResumable(boolean resumable) {
+        copyArtifact.setResumable(resumable);
+    }
+
+    public boolean isDeltaTransfer() {
+        return copyArtifact.isDeltaTransfer();
+    }
+
+    @DataBoundSetter
+    public void setDeltaTransfer(boolean deltaTransfer) {
+        copyArtifact.setDeltaTransfer(deltaTransfer);
+    }
+
+    public TransferCompression getCompression() {
+        return copyArtifact.getCompression();
+    }
+
+    @DataBoundSetter
+    public void setCompression(TransferCompression compression) {
+        copyArtifact.setCompression(compression);
+    }
+
+    public ChecksumAlgorithm getChecksum() {
+        return copyArtifact.getChecksum();
+    }
+
+    @DataBoundSetter
+    public void setChecksum(ChecksumAlgorithm checksum) {
+        copyArtifact.setChecksum(checksum);
+    }
+
+    public String getAxisFilter() {
+        return copyArtifact.getAxisFilter();
+    }
+
+    @DataBoundSetter
+    public void setAxisFilter(String axisFilter) {
+        copyArtifact.setAxisFilter(axisFilter);
+    }
+
+    public String getModuleFilter() {
+        return copyArtifact.getModuleFilter();
+    }
+
+    @DataBoundSetter
+    public void setModuleFilter(String moduleFilter) {
+        copyArtifact.setModuleFilter(moduleFilter);
+    }
+
+    public boolean isDryRun() {
+        return copyArtifact.isDryRun();
+    }
+
+    /**
+     * @param dryRun {@code true} to return files to copy without copying them.
+     */
+    @DataBoundSetter
+    public void setDryRun(boolean dryRun) {
+        copyArtifact.setDryRun(dryRun);
+    }
+
+    public boolean isWait() {
+        return wait;
+    }
+
+    /**
+     * @param wait {@code false} to return a handle immediately and copy in background.
+     *     Wait for the copy with {@code waitForCopyArtifacts}.
+     */
+    @DataBoundSetter
+    public void setWait(boolean wait) {
+        this.wait = wait;
+    }
+
+    /**
+     * @return the build step performing the copy.
+     */
+    @Nonnull
+    CopyArtifact getCopyArtifact() {
+        return copyArtifact;
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new CopyArtifactStepExecution(context, copyArtifact, wait);
+    }
+
+    @Extension(optional = true)
+    public static class DescriptorImpl extends StepDescriptor {
+        @Override
+        public String getFunctionName() {
+            return "copyArtifactsAsync";
+        }
+
+        @Override
+        public String getDisplayName() {
+            return Messages.CopyArtifactStep_DisplayName();
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return ImmutableSet.of(Run.class, FilePath.class, Launcher.class, TaskListener.class);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.AbortException;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import org.acegisecurity.Authentication;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+
+/**
+ * Performs {@link CopyArtifact} in a dedicated thread pool
+ * and completes the step when the copy finishes.
+ *
+ * Stopping the step interrupts the thread performing the copy.
+ * When not waiting for the copy, the step completes immediately
+ * and the copy is tracked in {@link BackgroundCopies}.
+ * The copy cannot survive restarts of Jenkins and the step fails when resumed.
+ */
+class CopyArtifactStepExecution extends StepExecution {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximum number of copies performed at the same time by pipeline steps.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ int POOL_SIZE = Integer.getInteger(CopyArtifactStep.class.getName() + ".poolSize", 10);
+
+    private static ExecutorService executor;
+
+    private final transient CopyArtifact copyArtifact;
+    private final transient boolean wait;
+    private transient volatile Future<?> task;
+    private transient volatile CompletableFuture<Object> result;
+
+    /**
+     * @param context the context of the step
+     * @param copyArtifact the copy to perform
+     * @param wait {@code false} to complete the step immediately returning the handle of the copy
+     */
+    CopyArtifactStepExecution(@Nonnull StepContext context, @Nonnull CopyArtifact copyArtifact, boolean wait) {
+        super(context);
+        this.copyArtifact = copyArtifact;
+        this.wait = wait;
+    }
+
+    /**
+     * @return the thread pool to perform copies in.
+     */
+    static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    POOL_SIZE, POOL_SIZE,
+                    60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new NamingThreadFactory(new DaemonThreadFactory(), "CopyArtifactStep")
+            );
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    /**
+     * Stops the thread pool when the plugin is stopped, interrupting running copies.
+     */
+    static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    @Override
+    public boolean start() throws Exception {
+        final StepContext context = getContext();
+        final Run<?, ?> run = context.get(Run.class);
+        final FilePath workspace = context.get(FilePath.class);
+        final Launcher launcher = context.get(Launcher.class);
+        final TaskListener listener = context.get(TaskListener.class);
+        // the pool thread doesn't inherit the authentication the build runs as.
+        final Authentication auth = Jenkins.getAuthentication();
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        this.result = result;
+        task = getExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+                try (ACLContext ctx = ACL.as(auth)) {
+                    if (copyArtifact.isDryRun()) {
+                        result.complete(copyArtifact.plan(run, workspace, listener).toMap());
+                    } else {
+                        copyArtifact.perform(run, workspace, launcher, listener);
+                        result.complete(null);
+                    }
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            }
+        });
+        if (!wait) {
+            context.onSuccess(BackgroundCopies.register(run, task, result));
+            return true;
+        }
+        result.whenComplete((v, t) -> {
+            if (t == null) {
+                context.onSuccess(v);
+            } else {
+                context.onFailure(t);
+            }
+        });
+        return false;
+    }
+
+    @Override
+    public void stop(@Nonnull Throwable cause) throws Exception {
+        CompletableFuture<Object> r = result;
+        if (r != null) {
+            // a task cancelled before running never completes the result.
+            r.completeExceptionally(cause);
+        }
+        Future<?> t = task;
+        if (t != null) {
+            t.cancel(true);
+        }
+    }
+
+    @Override
+    public void onResume() {
+        getContext().onFailure(new AbortException(Messages.CopyArtifactStep_Resumed()));
+    }
+
+    @Override
+    public String getStatus() {
+        Future<?> t = task;
+        if (t == null) {
+            return "not running";
+        }
+        return t.isDone() ? "finished" : "copying artifacts";
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.remoting.VirtualChannel;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Serializable;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Records files completely copied to the target directory,
+ * so that a retried copy transfers only files which are missing or partially copied.
+ *
+ * The journal is a file in the target directory with a line for each copied file:
+ * the id of the build copied from, the artifact path, the size, the digest, the timestamp and the path of the copied file.
+ * Lines are appended in batches and the file is deleted when the copy succeeds.
+ * A recorded file is trusted only if it still has the recorded size and timestamp,
+ * and the recorded digest if any, so that it is not fingerprinted with a stale digest.
+ */
+final class CopyJournal {
+    static final String NAME = ".copyartifact-journal";
+
+    /**
+     * The number of lines to collect before appending them to the journal.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * The maximum time to hold lines before appending them to the journal, in milliseconds.
+     */
+    private static final long BATCH_INTERVAL = 5000;
+
+    private final FilePath root;
+    private final Map<String, Done> done;
+    private final List<String> pending = new ArrayList<>();
+    private long lastFlush = System.currentTimeMillis();
+    @CheckForNull
+    private String source;
+
+    private CopyJournal(FilePath root, Map<String, Done> done) {
+        this.root = root;
+        this.done = done;
+    }
+
+    /**
+     * Reads the journal left by a previous copy.
+     *
+     * Files recorded in the journal but missing, different in size or timestamp, or not matching the recorded digest are forgotten.
+     *
+     * @param root the target directory of the copy
+     * @return the journal.
+     */
+    @Nonnull
+    static CopyJournal load(@Nonnull FilePath root) throws IOException, InterruptedException {
+        return new CopyJournal(root, root.act(new Load()));
+    }
+
+    /**
+     * Set the build files are copied from.
+     *
+     * @param source the externalizable id of the build
+     */
+    void setSource(@Nonnull String source) {
+        this.source = source;
+    }
+
+    /**
+     * @param entry the path of the artifact
+     * @param length the size of the artifact
+     * @return the file copied by a previous copy, or {@code null} if the artifact should be copied.
+     */
+    @CheckForNull
+    Done get(@Nonnull String entry, long length) {
+        Done d = done.get(source + '\t' + entry);
+        return (d != null && d.length == length) ? d : null;
+    }
+
+    /**
+     * Records a copied file.
+     *
+     * @param entry the path of the artifact
+     * @param length the size of the artifact
+     * @param digest the MD5 digest of the artifact, or {@code null} if not calculated
+     * @param lastModified the timestamp set to the copied file
+     * @param target the copied file
+     */
+    void record(@Nonnull String entry, long length, @CheckForNull String digest, long lastModified, @Nonnull FilePath target) throws IOException, InterruptedException {
+        pending.add(String.join("\t", source, entry, Long.toString(length), digest != null ? digest : "-", Long.toString(lastModified), relativize(target)));
+        if (pending.size() >= BATCH_SIZE || System.currentTimeMillis() - lastFlush >= BATCH_INTERVAL) {
+            flush();
+        }
+    }
+
+    private String relativize(FilePath target) {
+        String base = root.getRemote();
+        String path = target.getRemote();
+        if (path.length() > base.length() && path.startsWith(base)) {
+            return path.substring(base.length() + 1);
+        }
+        return path;
+    }
+
+    /**
+     * Appends recorded lines to the journal.
+     */
+    void flush() throws IOException, InterruptedException {
+        lastFlush = System.currentTimeMillis();
+        if (pending.isEmpty()) {
+            return;
+        }
+        root.act(new Append(new ArrayList<>(pending)));
+        pending.clear();
+    }
+
+    /**
+     * Deletes the journal after the copy succeeded.
+     */
+    void delete() throws IOException, InterruptedException {
+        pending.clear();
+        root.child(NAME).delete();
+    }
+
+    /**
+     * A file copied by a previous copy.
+     */
+    static final class Done implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final long length;
+        @CheckForNull
+        private final String digest;
+
+        Done(long length, @CheckForNull String digest) {
+            this.length = length;
+            this.digest = digest;
+        }
+
+        /**
+         * @return the MD5 digest of the file, or {@code null} if not calculated.
+         */
+        @CheckForNull
+        String getDigest() {
+            return digest;
+        }
+    }
+
+    private static final class Load extends MasterToSlaveFileCallable<Map<String, Done>> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Map<String, Done> invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            Map<String, Done> done = new HashMap<>();
+            File journal = new File(dir, NAME);
+            if (!journal.isFile()) {
+                return done;
+            }
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(Files.newInputStream(journal.toPath()), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    String[] fields = line.split("\t", 6);
+                    if (fields.length < 6) {
+                        // partially written
+                        continue;
+                    }
+                    long length;
+                    long lastModified;
+                    try {
+                        length = Long.parseLong(fields[2]);
+                        lastModified = Long.parseLong(fields[4]);
+                    } catch (NumberFormatException e) {
+                        continue;
+                    }
+                    File f = new File(fields[5]);
+                    if (!f.isAbsolute()) {
+                        f = new File(dir, fields[5]);
+                    }
+                    String digest = "-".equals(fields[3]) ? null : fields[3];
+                    // some file systems keep timestamps only in seconds.
+                    if (!f.isFile() || f.length() != length || f.lastModified() / 1000 != lastModified / 1000) {
+                        continue;
+                    }
+                    if (digest != null && !digest.equals(digest(f))) {
+                        // rewritten after copied
+                        continue;
+                    }
+                    done.put(fields[0] + '\t' + fields[1], new Done(length, digest));
+                }
+            }
+            return done;
+        }
+    }
+
+    private static String digest(File f) throws IOException {
+        try (InputStream in = Files.newInputStream(f.toPath())) {
+            return Util.getDigestOf(in);
+        }
+    }
+
+    private static final class Append extends MasterToSlaveFileCallable<Void> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<String> lines;
+
+        Append(List<String> lines) {
+            this.lines = lines;
+        }
+
+        @Override
+        public Void invoke(File dir, VirtualChannel channel) throws IOException, InterruptedException {
+            hudson.util.IOUtils.mkdirs(dir);
+            try (Writer w = new OutputStreamWriter(new FileOutputStream(new File(dir, NAME), true), StandardCharsets.UTF_8)) {
+                for (String line : lines) {
+                    w.write(line);
+                    w.write('\n');
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.FilePath;
+import hudson.model.Run;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Files a copy would transfer, collected without transferring them.
+ *
+ * Target paths are relative to the workspace when they are inside it.
+ * Files copied to the same target path, usually by flattening directories, are reported as collisions.
+ */
+final class CopyPlan {
+    private final String project;
+    private final String workspace;
+    @CheckForNull
+    private Run<?, ?> build;
+    private final List<Map<String, Object>> files = new ArrayList<>();
+    // target path → source paths
+    private final Map<String, List<String>> targets = new LinkedHashMap<>();
+    private long bytes;
+
+    /**
+     * @param project the name of the project to copy from
+     * @param workspace the directory to copy to
+     */
+    CopyPlan(@Nonnull String project, @Nonnull FilePath workspace) {
+        this.project = project;
+        this.workspace = workspace.getRemote();
+    }
+
+    /**
+     * @param build the selected build, or {@code null} if no build is found
+     */
+    void setBuild(@CheckForNull Run<?, ?> build) {
+        this.build = build;
+    }
+
+    /**
+     * Adds a file to copy.
+     *
+     * @param source the path of the artifact
+     * @param target the path to copy the artifact to
+     * @param length the size of the artifact
+     */
+    synchronized void add(@Nonnull String source, @Nonnull String target, long length) {
+        target = relativize(target);
+        Map<String, Object> file = new LinkedHashMap<>();
+        file.put("source", source);
+        file.put("target", target);
+        file.put("size", length);
+        files.add(file);
+        List<String> sources = targets.get(target);
+        if (sources == null) {
+            sources = new ArrayList<>();
+            targets.put(target, sources);
+        }
+        sources.add(source);
+        bytes += length;
+    }
+
+    private String relativize(String target) {
+        if (target.length() > workspace.length() && target.startsWith(workspace)) {
+            char c = target.charAt(workspace.length());
+            if (c == '/' || c == '\\') {
+                return target.substring(workspace.length() + 1);
+            }
+        }
+        return target;
+    }
+
+    synchronized int getCount() {
+        return files.size();
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return target paths to which more than one file would be copied.
+     */
+    @Nonnull
+    synchronized List<String> getCollisions() {
+        List<String> collisions = new ArrayList<>();
+        for (Map.Entry<String, List<String>> e : targets.entrySet()) {
+            if (e.getValue().size() > 1) {
+                collisions.add(e.getKey());
+            }
+        }
+        return collisions;
+    }
+
+    /**
+     * Reports the plan.
+     *
+     * @param console where to print
+     */
+    synchronized void print(@Nonnull PrintStream console) {
+        if (build == null) {
+            return;
+        }
+        console.println(Messages.CopyArtifact_Planned(files.size(), bytes, build.getFullDisplayName()));
+        for (Map<String, Object> file : files) {
+            console.println(String.format("  %s -> %s (%d bytes)", file.get("source"), file.get("target"), file.get("size")));
+        }
+        for (String collision : getCollisions()) {
+            console.println(Messages.CopyArtifact_PlannedCollision(collision, String.join(", ", targets.get(collision))));
+        }
+    }
+
+    /**
+     * @return the plan in a form which can be returned from pipeline steps.
+     */
+    @Nonnull
+    synchronized Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("project", project);
+        map.put("build", build != null ? build.getNumber() : null);
+        map.put("count", files.size());
+        map.put("bytes", bytes);
+        List<Map<String, Object>> copiedFiles = new ArrayList<>();
+        for (Map<String, Object> file : files) {
+            copiedFiles.add(new LinkedHashMap<>(file));
+        }
+        map.put("files", copiedFiles);
+        map.put("collisions", getCollisions());
+        return map;
+    }
+}
@@ -0,0 +1,412 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.util.VirtualFile;
+import org.apache.commons.io.input.CloseShieldInputStream;
+
+/**
+ * State shared by all files copied by a copy artifact step.
+ *
+ * A session can be shared by several copies with {@link #child(boolean, boolean, CopyStatisticsAction.Record)}.
+ * File attributes and fingerprints of the copying build are then applied once by the parent session.
+ */
+final class CopySession {
+    private final TaskListener listener;
+    private final boolean fingerprint;
+    private final boolean flatten;
+    @CheckForNull
+    private final MetadataBatch metadata;
+    @CheckForNull
+    private final CopyStatisticsAction.Record statistics;
+    @CheckForNull
+    private final CopySession parent;
+    private final Map<String, String> buildFingerprints;
+    private boolean extract;
+    @CheckForNull
+    private String extractFilter;
+    @CheckForNull
+    private String packAs;
+    @CheckForNull
+    private CopyPlan plan;
+    @CheckForNull
+    private TransferGovernor.Permit permit;
+    @CheckForNull
+    private CopyJournal journal;
+    private boolean delta;
+    private boolean localArtifacts;
+    private TransferCompression compression = TransferCompression.NONE;
+    @CheckForNull
+    private File artifactArchive;
+    @CheckForNull
+    private String source;
+    private ChecksumAlgorithm checksum = ChecksumAlgorithm.NONE;
+    @CheckForNull
+    private ChecksumManifest manifest;
+    @CheckForNull
+    private VirtualFile offered;
+    @CheckForNull
+    private InputStream offeredStream;
+
+    /**
+     * @param listener where to report
+     * @param fingerprint whether to calculate digests of copied files
+     * @param flatten whether to ignore directories of artifacts
+     * @param statistics where to record statistics, or {@code null} not to record them
+     */
+    CopySession(@Nonnull TaskListener listener, boolean fingerprint, boolean flatten, @CheckForNull CopyStatisticsAction.Record statistics) {
+        this.listener = listener;
+        this.fingerprint = fingerprint;
+        this.flatten = flatten;
+        this.metadata = CopyArtifact.DISABLE_METADATA_BATCHING ? null : new MetadataBatch();
+        this.statistics = statistics;
+        this.parent = null;
+        this.buildFingerprints = new HashMap<>();
+    }
+
+    private CopySession(@Nonnull CopySession parent, boolean fingerprint, boolean flatten, @CheckForNull CopyStatisticsAction.Record statistics) {
+        this.listener = parent.listener;
+        this.fingerprint = fingerprint;
+        this.flatten = flatten;
+        this.metadata = parent.metadata;
+        this.statistics = statistics;
+        this.parent = parent;
+        this.buildFingerprints = parent.buildFingerprints;
+    }
+
+    /**
+     * Creates a session sharing deferred file attributes and fingerprints with this session.
+     *
+     * @param fingerprint whether to calculate digests of copied files
+     * @param flatten whether to ignore directories of artifacts
+     * @param statistics where to record statistics, or {@code null} not to record them
+     * @return a session whose {@link #applyMetadata()} is left to this session.
+     */
+    @Nonnull
+    CopySession child(boolean fingerprint, boolean flatten, @CheckForNull CopyStatisticsAction.Record statistics) {
+        return new CopySession(this, fingerprint, flatten, statistics);
+    }
+
+    @Nonnull
+    TaskListener getListener() {
+        return listener;
+    }
+
+    boolean isFingerprint() {
+        return fingerprint;
+    }
+
+    boolean isFlatten() {
+        return flatten;
+    }
+
+    /**
+     * @return where to defer applying file attributes to, or {@code null} to apply them immediately.
+     */
+    @CheckForNull
+    MetadataBatch getMetadata() {
+        return metadata;
+    }
+
+    @CheckForNull
+    CopyStatisticsAction.Record getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Set whether to extract archives instead of copying them.
+     *
+     * @param extract {@code true} to extract archives
+     * @param extractFilter comma separated patterns of entries to extract, or {@code null} to extract all entries
+     */
+    void setExtraction(boolean extract, @CheckForNull String extractFilter) {
+        this.extract = extract;
+        this.extractFilter = extractFilter;
+    }
+
+    boolean isExtract() {
+        return extract;
+    }
+
+    @CheckForNull
+    String getExtractFilter() {
+        return extractFilter;
+    }
+
+    /**
+     * Set the name of an archive to pack files into instead of copying them.
+     *
+     * @param packAs the name of the archive, or {@code null} to copy files as they are
+     */
+    void setPackAs(@CheckForNull String packAs) {
+        this.packAs = packAs;
+    }
+
+    @CheckForNull
+    String getPackAs() {
+        return packAs;
+    }
+
+    /**
+     * Set where to collect files instead of copying them.
+     *
+     * @param plan where to collect files, or {@code null} to copy files
+     */
+    void setPlan(@CheckForNull CopyPlan plan) {
+        this.plan = plan;
+    }
+
+    @CheckForNull
+    CopyPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Set whether to transfer only blocks changed from files already in the target.
+     *
+     * @param delta {@code true} to transfer changes of large files
+     */
+    void setDelta(boolean delta) {
+        this.delta = delta;
+    }
+
+    boolean isDelta() {
+        return delta;
+    }
+
+    /**
+     * Set whether artifacts being copied are files on the controller.
+     *
+     * @param localArtifacts {@code true} if artifacts are stored by {@link jenkins.model.StandardArtifactManager}
+     */
+    void setLocalArtifacts(boolean localArtifacts) {
+        this.localArtifacts = localArtifacts;
+    }
+
+    boolean isLocalArtifacts() {
+        return localArtifacts;
+    }
+
+    /**
+     * Set whether to compress artifacts while transferring them.
+     *
+     * @param compression how to compress
+     */
+    void setCompression(@Nonnull TransferCompression compression) {
+        this.compression = compression;
+    }
+
+    @Nonnull
+    TransferCompression getCompression() {
+        return compression;
+    }
+
+    /**
+     * Set checksums to write in addition to fingerprints.
+     *
+     * @param checksum the checksum to calculate
+     */
+    void setChecksum(@Nonnull ChecksumAlgorithm checksum) {
+        this.checksum = checksum;
+    }
+
+    @Nonnull
+    ChecksumAlgorithm getChecksum() {
+        return checksum;
+    }
+
+    /**
+     * Set where to record checksums of copied files.
+     *
+     * @param manifest the manifest of the target directory, or {@code null} not to calculate checksums
+     */
+    void setManifest(@CheckForNull ChecksumManifest manifest) {
+        this.manifest = manifest;
+    }
+
+    @CheckForNull
+    ChecksumManifest getManifest() {
+        return manifest;
+    }
+
+    /**
+     * Set the build artifacts are copied from.
+     *
+     * @param source the externalizable id of the build, used to cache small artifacts
+     */
+    void setSource(@CheckForNull String source) {
+        this.source = source;
+    }
+
+    @CheckForNull
+    String getSource() {
+        return source;
+    }
+
+    /**
+     * Set the zip file artifacts being copied are stored in.
+     *
+     * @param artifactArchive the archive of the compress-artifacts plugin, or {@code null} if artifacts are not stored in a known archive
+     */
+    void setArtifactArchive(@CheckForNull File artifactArchive) {
+        this.artifactArchive = artifactArchive;
+    }
+
+    @CheckForNull
+    File getArtifactArchive() {
+        return artifactArchive;
+    }
+
+    /**
+     * Provides the contents of an artifact already being read,
+     * to be returned by {@link #open(VirtualFile)} instead of opening the artifact again.
+     *
+     * @param s the artifact, or {@code null} to discard the stream
+     * @param in the contents of the artifact, closed by the caller
+     */
+    void offer(@CheckForNull VirtualFile s, @CheckForNull InputStream in) {
+        this.offered = s;
+        this.offeredStream = in;
+    }
+
+    /**
+     * Set where to record copied files.
+     *
+     * @param journal the journal of the target directory, or {@code null} not to record copied files
+     */
+    void setJournal(@CheckForNull CopyJournal journal) {
+        this.journal = journal;
+    }
+
+    @CheckForNull
+    CopyJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Set the slot the copy is performed in.
+     *
+     * @param permit the slot limiting bytes transferred per second, or {@code null} not to limit
+     */
+    void setPermit(@CheckForNull TransferGovernor.Permit permit) {
+        this.permit = permit;
+    }
+
+    @CheckForNull
+    TransferGovernor.Permit getPermit() {
+        return permit;
+    }
+
+    /**
+     * @param in the contents of an artifact read on the controller
+     * @return the stream limited to the configured bytes per second.
+     */
+    @Nonnull
+    InputStream throttle(@Nonnull InputStream in) {
+        return permit != null ? permit.throttle(in) : in;
+    }
+
+    /**
+     * Opens an artifact, using the stream provided with {@link #offer(VirtualFile, InputStream)} if any.
+     * The checksum of the artifact is calculated while read if requested.
+     *
+     * @param s the artifact to read on the controller
+     * @return the contents limited to the configured bytes per second.
+     */
+    @Nonnull
+    InputStream open(@Nonnull VirtualFile s) throws IOException {
+        InputStream in = offeredStream;
+        if (s == offered && in != null) {
+            // can be read only once.
+            offered = null;
+            offeredStream = null;
+            in = new CloseShieldInputStream(in);
+        } else if (source != null) {
+            in = ArtifactCache.get().open(source, s);
+        } else {
+            in = s.open();
+        }
+        if (manifest != null) {
+            in = manifest.hashing(s, in);
+        }
+        return throttle(in);
+    }
+
+    /**
+     * @return whether bytes transferred per second are limited.
+     */
+    boolean isThrottled() {
+        return permit != null && permit.isThrottled();
+    }
+
+    /**
+     * Applies deferred file attributes.
+     * Does nothing for child sessions, as the parent session applies them.
+     *
+     * @throws IOException when failed to apply attributes.
+     * @throws InterruptedException if any thread interrupts the current thread.
+     */
+    void applyMetadata() throws IOException, InterruptedException {
+        if (metadata != null && parent == null) {
+            metadata.apply(listener);
+        }
+    }
+
+    /**
+     * Adds fingerprints to record to the copying build.
+     *
+     * @param fingerprints file names to digests
+     */
+    void addBuildFingerprints(@Nonnull Map<String, String> fingerprints) {
+        synchronized (buildFingerprints) {
+            buildFingerprints.putAll(fingerprints);
+        }
+    }
+
+    /**
+     * Records fingerprints added with {@link #addBuildFingerprints(Map)} to the copying build at once.
+     *
+     * @param build the copying build
+     */
+    void recordBuildFingerprints(@Nonnull Run<?, ?> build) {
+        Map<String, String> fingerprints;
+        synchronized (buildFingerprints) {
+            if (buildFingerprints.isEmpty()) {
+                return;
+            }
+            fingerprints = new HashMap<>(buildFingerprints);
+            buildFingerprints.clear();
+        }
+        CopyArtifact.addFingerprints(build, fingerprints);
+    }
+}
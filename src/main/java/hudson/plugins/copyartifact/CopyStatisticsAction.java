@@ -0,0 +1,229 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.model.Action;
+import hudson.model.Run;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Records how long each copy artifact step in a build took and how much it transferred.
+ *
+ * Displayed in the build page and available via the REST API.
+ */
+@ExportedBean
+public class CopyStatisticsAction implements Action {
+    private final List<Record> records = new ArrayList<>();
+
+    /**
+     * Adds a record to the action of the build, creating the action if needed.
+     *
+     * @param build the build that copied artifacts
+     * @param record the record to add
+     */
+    static void record(@Nonnull Run<?, ?> build, @Nonnull Record record) {
+        CopyStatisticsAction action;
+        synchronized (CopyStatisticsAction.class) {
+            action = build.getAction(CopyStatisticsAction.class);
+            if (action == null) {
+                action = new CopyStatisticsAction();
+                build.addAction(action);
+            }
+        }
+        action.add(record);
+    }
+
+    private synchronized void add(Record record) {
+        records.add(record);
+    }
+
+    /**
+     * @return records of copy artifact steps in the order they finished.
+     */
+    @Exported(visibility = 2)
+    public synchronized List<Record> getRecords() {
+        return new ArrayList<>(records);
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.CopyStatisticsAction_DisplayName();
+    }
+
+    @Override
+    public String getUrlName() {
+        return null;
+    }
+
+    /**
+     * Statistics of a single copy artifact step.
+     *
+     * Times are in milliseconds.
+     */
+    @ExportedBean(defaultVisibility = 3)
+    public static class Record {
+        private final String projectName;
+        private int buildNumber = -1;
+        private long selectionTime;
+        private int buildsExamined;
+        private long listingTime;
+        private long transferTime;
+        private int files;
+        private long bytes;
+        private int skippedFiles;
+        private long fingerprintTime;
+
+        Record(@Nonnull String projectName) {
+            this.projectName = projectName;
+        }
+
+        void selected(@CheckForNull Run<?, ?> src, long time, int examined) {
+            buildNumber = (src != null) ? src.getNumber() : -1;
+            selectionTime += time;
+            buildsExamined += examined;
+        }
+
+        void listed(long time) {
+            listingTime += time;
+        }
+
+        void transferred(long time) {
+            transferTime += time;
+        }
+
+        synchronized void file(long length) {
+            ++files;
+            bytes += length;
+        }
+
+        synchronized void skipped() {
+            ++skippedFiles;
+        }
+
+        void fingerprinted(long time) {
+            fingerprintTime += time;
+        }
+
+        /**
+         * @return the full name of the project artifacts are copied from.
+         */
+        @Exported
+        public String getProjectName() {
+            return projectName;
+        }
+
+        /**
+         * @return the number of the build artifacts are copied from, or -1 if no build was selected.
+         */
+        @Exported
+        public int getBuildNumber() {
+            return buildNumber;
+        }
+
+        /**
+         * @return time spent to select the build to copy from.
+         */
+        @Exported
+        public long getSelectionTime() {
+            return selectionTime;
+        }
+
+        /**
+         * @return the number of builds passed to the build filter while selecting the build.
+         */
+        @Exported
+        public int getBuildsExamined() {
+            return buildsExamined;
+        }
+
+        /**
+         * @return time spent to list artifacts to copy.
+         */
+        @Exported
+        public long getListingTime() {
+            return listingTime;
+        }
+
+        /**
+         * @return time spent to transfer files, excluding the listing time.
+         */
+        @Exported
+        public long getTransferTime() {
+            return transferTime;
+        }
+
+        /**
+         * @return the number of transferred files.
+         */
+        @Exported
+        public synchronized int getFiles() {
+            return files;
+        }
+
+        /**
+         * @return the number of transferred bytes.
+         */
+        @Exported
+        public synchronized long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return the number of entries matched but whose contents were not transferred, like symlinks.
+         */
+        @Exported
+        public synchronized int getSkippedFiles() {
+            return skippedFiles;
+        }
+
+        /**
+         * @return time spent to record fingerprints.
+         */
+        @Exported
+        public long getFingerprintTime() {
+            return fingerprintTime;
+        }
+
+        /**
+         * @return transferred bytes per second, or 0 if nothing was transferred.
+         */
+        @Exported
+        public synchronized long getThroughput() {
+            if (transferTime <= 0) {
+                return 0;
+            }
+            return bytes * 1000 / transferTime;
+        }
+    }
+}
@@ -0,0 +1,470 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.FilePath;
+import hudson.remoting.RemoteInputStream;
+import hudson.remoting.VirtualChannel;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.util.VirtualFile;
+
+/**
+ * Transfers only blocks changed from the file already in the target, like rsync.
+ *
+ * <ol>
+ *     <li>The agent splits the existing file into blocks and sends their checksums.</li>
+ *     <li>The controller reads the artifact looking for blocks with the same checksums,
+ *         and streams references to them and bytes not found in the existing file.</li>
+ *     <li>The agent rebuilds the file into a temporary file, and replaces the existing file
+ *         only if the MD5 digest matches the one of the artifact calculated by the controller.</li>
+ * </ol>
+ */
+final class DeltaTransfer {
+    /**
+     * Files smaller than this are always transferred as they are.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ long MIN_LENGTH = Long.getLong(CopyArtifact.class.getName() + ".deltaMinLength", 1024 * 1024);
+
+    private static final int MIN_BLOCK_SIZE = 2048;
+    private static final int MAX_BLOCK_SIZE = 128 * 1024;
+    private static final int MAX_LITERAL = 64 * 1024;
+
+    private static final byte OP_LITERAL = 'L';
+    private static final byte OP_COPY = 'C';
+    private static final byte OP_END = 'E';
+
+    private static final Logger LOGGER = Logger.getLogger(DeltaTransfer.class.getName());
+
+    private DeltaTransfer() {
+    }
+
+    /**
+     * Updates the file in the target with the artifact.
+     *
+     * @param s the artifact to copy
+     * @param d the file to update
+     * @param session the state of the copy
+     * @return the MD5 digest of the artifact,
+     *     or {@code null} if the file should be copied as usual as it doesn't exist yet or failed to rebuild.
+     */
+    @CheckForNull
+    static byte[] copy(@Nonnull VirtualFile s, @Nonnull FilePath d, @Nonnull CopySession session) throws IOException, InterruptedException {
+        if (!d.isRemote() || s.length() < MIN_LENGTH) {
+            return null;
+        }
+        Signatures signatures = d.act(new Sign());
+        if (signatures == null) {
+            return null;
+        }
+        Encoder encoder;
+        byte[] digest;
+        try (InputStream in = session.open(s)) {
+            encoder = new Encoder(in, signatures);
+            digest = d.act(new Apply(signatures.blockSize, new RemoteInputStream(encoder, RemoteInputStream.Flag.GREEDY)));
+        }
+        if (digest == null) {
+            LOGGER.log(Level.WARNING, "Digest mismatched after applying delta to {0}, copying the whole file", d);
+            return null;
+        }
+        session.getListener().getLogger().println(Messages.CopyArtifact_Delta(d.getName(), encoder.literalBytes, encoder.totalBytes));
+        return digest;
+    }
+
+    static int blockSize(long length) {
+        return (int) Math.max(MIN_BLOCK_SIZE, Math.min(MAX_BLOCK_SIZE, (long) Math.sqrt(length)));
+    }
+
+    /**
+     * The rolling checksum of rsync.
+     */
+    static int weak(int a, int b) {
+        return (b << 16) | a;
+    }
+
+    /**
+     * Checksums of blocks of the existing file.
+     */
+    static final class Signatures implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int blockSize;
+        private final int[] weak;
+        private final byte[][] strong;
+
+        Signatures(int blockSize, int[] weak, byte[][] strong) {
+            this.blockSize = blockSize;
+            this.weak = weak;
+            this.strong = strong;
+        }
+    }
+
+    /**
+     * Calculates checksums of full blocks of the existing file.
+     */
+    private static final class Sign extends MasterToSlaveFileCallable<Signatures> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Signatures invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            if (!f.isFile()) {
+                return null;
+            }
+            int blockSize = blockSize(f.length());
+            int blocks = (int) (f.length() / blockSize);
+            if (blocks == 0) {
+                return null;
+            }
+            int[] weak = new int[blocks];
+            byte[][] strong = new byte[blocks][];
+            MessageDigest md5 = CopyArtifact.md5();
+            byte[] block = new byte[blockSize];
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)))) {
+                for (int i = 0; i < blocks; ++i) {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    in.readFully(block);
+                    int a = 0;
+                    int b = 0;
+                    for (int j = 0; j < blockSize; ++j) {
+                        a += block[j] & 0xff;
+                        b += (blockSize - j) * (block[j] & 0xff);
+                    }
+                    weak[i] = weak(a & 0xffff, b & 0xffff);
+                    strong[i] = md5.digest(block);
+                }
+            }
+            return new Signatures(blockSize, weak, strong);
+        }
+    }
+
+    /**
+     * Reads the artifact and produces the delta from the existing file.
+     *
+     * The delta is a sequence of literal bytes and references to blocks of the existing file,
+     * terminated with the MD5 digest of the artifact.
+     */
+    private static final class Encoder extends InputStream {
+        private final InputStream in;
+        private final MessageDigest digest = CopyArtifact.md5();
+        private final MessageDigest strong = CopyArtifact.md5();
+        private final int blockSize;
+        private final Signatures signatures;
+        private final Map<Integer, List<Integer>> index = new HashMap<>();
+        // the ring buffer of the block being compared.
+        private final byte[] window;
+        private int start;
+        private int length;
+        private int a;
+        private int b;
+        private final ByteArrayOutputStream literal = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(buffer);
+        private byte[] output = new byte[0];
+        private int outputPos;
+        private boolean started;
+        private boolean finished;
+        long literalBytes;
+        long totalBytes;
+
+        Encoder(InputStream in, Signatures signatures) {
+            this.in = new BufferedInputStream(new DigestInputStream(in, digest));
+            this.signatures = signatures;
+            this.blockSize = signatures.blockSize;
+            this.window = new byte[blockSize];
+            for (int i = 0; i < signatures.weak.length; ++i) {
+                List<Integer> blocks = index.get(signatures.weak[i]);
+                if (blocks == null) {
+                    blocks = new ArrayList<>(1);
+                    index.put(signatures.weak[i], blocks);
+                }
+                blocks.add(i);
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!fill()) {
+                return -1;
+            }
+            return output[outputPos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int n = Math.min(len, output.length - outputPos);
+            System.arraycopy(output, outputPos, b, off, n);
+            outputPos += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+        /**
+         * @return {@code false} if no more output.
+         */
+        private boolean fill() throws IOException {
+            while (outputPos >= output.length) {
+                if (finished) {
+                    return false;
+                }
+                encode();
+                output = buffer.toByteArray();
+                outputPos = 0;
+                buffer.reset();
+            }
+            return true;
+        }
+
+        /**
+         * Produces the next operations into {@link #buffer}.
+         */
+        private void encode() throws IOException {
+            if (!started) {
+                started = true;
+                if (!readWindow()) {
+                    end();
+                    return;
+                }
+            }
+            while (buffer.size() == 0) {
+                int block = match();
+                if (block >= 0) {
+                    flushLiteral();
+                    out.writeByte(OP_COPY);
+                    out.writeInt(block);
+                    totalBytes += blockSize;
+                    if (!readWindow()) {
+                        end();
+                    }
+                    return;
+                }
+                // slide the window by a byte.
+                int removed = window[start] & 0xff;
+                literal.write(removed);
+                int c = in.read();
+                if (c < 0) {
+                    // the rest is shorter than a block.
+                    start = (start + 1) % blockSize;
+                    --length;
+                    writeWindow();
+                    end();
+                    return;
+                }
+                window[start] = (byte) c;
+                start = (start + 1) % blockSize;
+                a = (a - removed + c) & 0xffff;
+                b = (b - blockSize * removed + a) & 0xffff;
+                if (literal.size() >= MAX_LITERAL) {
+                    flushLiteral();
+                }
+            }
+        }
+
+        /**
+         * Reads the next block into the window.
+         *
+         * @return {@code false} if reached the end before filling the window,
+         *     in which case the read bytes are written as literal.
+         */
+        private boolean readWindow() throws IOException {
+            start = 0;
+            length = 0;
+            while (length < blockSize) {
+                int n = in.read(window, length, blockSize - length);
+                if (n < 0) {
+                    break;
+                }
+                length += n;
+            }
+            if (length < blockSize) {
+                writeWindow();
+                return false;
+            }
+            a = 0;
+            b = 0;
+            for (int j = 0; j < blockSize; ++j) {
+                a += window[j] & 0xff;
+                b += (blockSize - j) * (window[j] & 0xff);
+            }
+            a &= 0xffff;
+            b &= 0xffff;
+            return true;
+        }
+
+        /**
+         * @return the index of the block of the existing file same as the window, or -1 if not found.
+         */
+        private int match() {
+            List<Integer> blocks = index.get(weak(a, b));
+            if (blocks == null) {
+                return -1;
+            }
+            strong.update(window, start, blockSize - start);
+            strong.update(window, 0, start);
+            byte[] d = strong.digest();
+            for (int block : blocks) {
+                if (Arrays.equals(d, signatures.strong[block])) {
+                    return block;
+                }
+            }
+            return -1;
+        }
+
+        private void writeWindow() {
+            for (int i = 0; i < length; ++i) {
+                literal.write(window[(start + i) % blockSize]);
+            }
+            length = 0;
+        }
+
+        private void flushLiteral() throws IOException {
+            if (literal.size() == 0) {
+                return;
+            }
+            out.writeByte(OP_LITERAL);
+            out.writeInt(literal.size());
+            literal.writeTo(out);
+            literalBytes += literal.size();
+            totalBytes += literal.size();
+            literal.reset();
+        }
+
+        private void end() throws IOException {
+            flushLiteral();
+            out.writeByte(OP_END);
+            // the whole artifact is read here.
+            out.write(digest.digest());
+            out.flush();
+            finished = true;
+        }
+    }
+
+    /**
+     * Rebuilds the file from the existing file and the delta.
+     *
+     * @return the MD5 digest of the rebuilt file, or {@code null} if it doesn't match the artifact.
+     */
+    private static final class Apply extends MasterToSlaveFileCallable<byte[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int blockSize;
+        private final InputStream delta;
+
+        Apply(int blockSize, InputStream delta) {
+            this.blockSize = blockSize;
+            this.delta = delta;
+        }
+
+        @Override
+        public byte[] invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            File tmp = File.createTempFile(".copyartifact", ".tmp", f.getParentFile());
+            try {
+                MessageDigest md5 = CopyArtifact.md5();
+                byte[] expected = new byte[md5.getDigestLength()];
+                byte[] block = new byte[blockSize];
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(delta));
+                     RandomAccessFile basis = new RandomAccessFile(f, "r");
+                     OutputStream os = new DigestOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)), md5)) {
+                    while (true) {
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                        byte op = in.readByte();
+                        if (op == OP_LITERAL) {
+                            int n = in.readInt();
+                            while (n > 0) {
+                                int r = in.read(block, 0, Math.min(n, blockSize));
+                                if (r < 0) {
+                                    throw new IOException("Unexpected end of delta");
+                                }
+                                os.write(block, 0, r);
+                                n -= r;
+                            }
+                        } else if (op == OP_COPY) {
+                            basis.seek((long) in.readInt() * blockSize);
+                            basis.readFully(block);
+                            os.write(block);
+                        } else if (op == OP_END) {
+                            in.readFully(expected);
+                            break;
+                        } else {
+                            throw new IOException("Unexpected operation in delta: " + op);
+                        }
+                    }
+                }
+                if (!MessageDigest.isEqual(md5.digest(), expected)) {
+                    return null;
+                }
+                try {
+                    Files.setPosixFilePermissions(tmp.toPath(), Files.getPosixFilePermissions(f.toPath()));
+                } catch (UnsupportedOperationException e) {
+                    // permissions are applied later if known.
+                }
+                Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                return expected;
+            } finally {
+                Files.deleteIfExists(tmp.toPath());
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Copies an artifact stored on the controller disk to a file on the controller
+ * with {@link FileChannel}s, without copying contents through heap buffers.
+ */
+final class LocalTransfer {
+    private LocalTransfer() {
+    }
+
+    /**
+     * @param s the artifact file
+     * @param d the file to write
+     * @param fingerprint whether to calculate the digest
+     * @param checksum updated with the contents of the file, or {@code null} not to calculate checksums
+     * @return the MD5 digest of the file, or {@code null} if not calculated.
+     */
+    @CheckForNull
+    static byte[] copy(@Nonnull File s, @Nonnull File d, boolean fingerprint, @CheckForNull ChecksumManifest.Hasher checksum) throws IOException, InterruptedException {
+        hudson.util.IOUtils.mkdirs(d.getParentFile());
+        try (FileChannel in = FileChannel.open(s.toPath(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(d.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (!fingerprint && checksum == null) {
+                long size = in.size();
+                long position = 0;
+                while (position < size) {
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    long n = in.transferTo(position, size - position, out);
+                    if (n <= 0) {
+                        // truncated while copying
+                        break;
+                    }
+                    position += n;
+                }
+                return null;
+            }
+            TransferContext context = TransferContext.get();
+            MessageDigest md5 = fingerprint ? context.md5() : null;
+            ByteBuffer buf = context.directBuffer();
+            while (in.read(buf) >= 0) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                buf.flip();
+                if (md5 != null) {
+                    md5.update(buf);
+                    buf.rewind();
+                }
+                if (checksum != null) {
+                    checksum.update(buf);
+                    buf.rewind();
+                }
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+                buf.clear();
+            }
+            if (checksum != null) {
+                checksum.complete();
+            }
+            return md5 != null ? md5.digest() : null;
+        }
+    }
+}
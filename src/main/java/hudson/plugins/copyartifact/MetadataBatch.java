@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.FilePath;
+import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Collects timestamps, permissions and symlinks of copied files
+ * and applies them with a single call to the agent at the end of the copy,
+ * rather than issuing separate remote calls for each file.
+ */
+final class MetadataBatch {
+    private final List<Entry> entries = new ArrayList<>();
+    @CheckForNull
+    private FilePath anchor;
+
+    /**
+     * Records the timestamp and the permission of a copied file.
+     *
+     * @param d the copied file
+     * @param lastModified the timestamp to set
+     * @param mode the permission to set, or -1 to leave it
+     */
+    void file(@Nonnull FilePath d, long lastModified, int mode) {
+        add(d, new Entry(d.getRemote(), null, lastModified, mode));
+    }
+
+    /**
+     * Records a symlink to create.
+     *
+     * @param d the symlink file
+     * @param link the target of the symlink
+     */
+    void symlink(@Nonnull FilePath d, @Nonnull String link) {
+        add(d, new Entry(d.getRemote(), link, -1, -1));
+    }
+
+    private void add(FilePath d, Entry entry) {
+        if (anchor == null) {
+            anchor = d;
+        }
+        entries.add(entry);
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Applies all recorded metadata and reports failures entry by entry.
+     *
+     * Failures to set timestamps are reported as warnings
+     * as they were when applied file by file.
+     *
+     * @param listener where to report failures
+     * @throws IOException when failed to set permissions or create symlinks for any entry
+     * @throws InterruptedException if any thread interrupts the current thread.
+     */
+    void apply(@Nonnull TaskListener listener) throws IOException, InterruptedException {
+        if (anchor == null) {
+            return;
+        }
+        List<Failure> failures = anchor.act(new Apply(entries));
+        entries.clear();
+        int errors = 0;
+        PrintStream console = listener.getLogger();
+        for (Failure failure : failures) {
+            if (failure.fatal) {
+                ++errors;
+                listener.error("Failed to %s %s: %s", failure.operation, failure.path, failure.message);
+            } else {
+                console.println(String.format("Warning: failed to %s %s: %s", failure.operation, failure.path, failure.message));
+            }
+        }
+        if (errors > 0) {
+            throw new IOException(String.format("Failed to apply file attributes for %d %s", errors, errors == 1 ? "entry" : "entries"));
+        }
+    }
+
+    private static class Entry implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String path;
+        @CheckForNull
+        private final String link;
+        private final long lastModified;
+        private final int mode;
+
+        Entry(String path, @CheckForNull String link, long lastModified, int mode) {
+            this.path = path;
+            this.link = link;
+            this.lastModified = lastModified;
+            this.mode = mode;
+        }
+    }
+
+    private static class Failure implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final String path;
+        private final String operation;
+        private final String message;
+        private final boolean fatal;
+
+        Failure(String path, String operation, String message, boolean fatal) {
+            this.path = path;
+            this.operation = operation;
+            this.message = message;
+            this.fatal = fatal;
+        }
+    }
+
+    private static class Apply extends MasterToSlaveFileCallable<List<Failure>> {
+        private static final long serialVersionUID = 1L;
+        private final List<Entry> entries;
+
+        Apply(List<Entry> entries) {
+            this.entries = new ArrayList<>(entries);
+        }
+
+        @Override
+        public List<Failure> invoke(File ignored, VirtualChannel channel) throws IOException, InterruptedException {
+            List<Failure> failures = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+                File f = new File(entry.path);
+                if (entry.link != null) {
+                    File parent = f.getParentFile();
+                    if (parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+                        failures.add(new Failure(entry.path, "create directory for", "cannot create " + parent, true));
+                        continue;
+                    }
+                    try {
+                        Files.deleteIfExists(f.toPath());
+                        Files.createSymbolicLink(f.toPath(), Paths.get(entry.link));
+                    } catch (IOException | UnsupportedOperationException | InvalidPathException e) {
+                        failures.add(new Failure(entry.path, "create symlink", e.toString(), true));
+                    }
+                    continue;
+                }
+                if (!f.setLastModified(entry.lastModified)) {
+                    failures.add(new Failure(entry.path, "set timestamp of", "cannot set the timestamp to " + entry.lastModified, false));
+                }
+                if (entry.mode != -1) {
+                    try {
+                        new FilePath(f).chmod(entry.mode);
+                    } catch (IOException e) {
+                        failures.add(new Failure(entry.path, "set permission of", e.getMessage(), true));
+                    }
+                }
+            }
+            return failures;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.maven.MavenBuild;
+import hudson.maven.ModuleName;
+import hudson.model.Run;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.apache.tools.ant.types.selectors.SelectorUtils;
+
+/**
+ * Selects module builds of a Maven build to copy artifacts from,
+ * with comma separated glob patterns matching {@code groupId:artifactId} or {@code artifactId}.
+ *
+ * Refers classes in the "maven-plugin" plugin,
+ * and must be used only when the plugin is installed.
+ */
+final class ModuleFilter {
+    private final List<String> patterns = new ArrayList<>();
+
+    /**
+     * @param expression comma separated glob patterns
+     */
+    ModuleFilter(@Nonnull String expression) {
+        for (String pattern : expression.split(",")) {
+            pattern = pattern.trim();
+            if (!pattern.isEmpty()) {
+                patterns.add(pattern);
+            }
+        }
+    }
+
+    /**
+     * @param r a module build
+     * @return whether to copy artifacts from the module build.
+     */
+    boolean matches(@Nonnull Run<?, ?> r) {
+        ModuleName module = ((MavenBuild) r).getParent().getModuleName();
+        for (String pattern : patterns) {
+            if (SelectorUtils.match(pattern, module.groupId + ':' + module.artifactId)
+                    || SelectorUtils.match(pattern, module.artifactId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
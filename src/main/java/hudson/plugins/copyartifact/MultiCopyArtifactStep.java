@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import com.google.common.collect.ImmutableSet;
+import hudson.Extension;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.jenkinsci.plugins.workflow.steps.Step;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepDescriptor;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+/**
+ * Pipeline step to copy artifacts from multiple projects in one operation.
+ *
+ * Each source accepts the same arguments as {@code copyArtifacts}:
+ * <pre>
+ * copyArtifactsFromAll(sources: [
+ *     [projectName: 'component-a', filter: '*.jar', target: 'a'],
+ *     [projectName: 'component-b', selector: lastSuccessful(), target: 'b'],
+ * ])
+ * </pre>
+ * Projects are looked up and builds are selected concurrently,
+ * and then files are copied from one source after another in a single {@link CopySession},
+ * applying file attributes and fingerprints of this build at once.
+ */
+public class MultiCopyArtifactStep extends Step {
+    private final List<CopyArtifact> sources;
+
+    @DataBoundConstructor
+    public MultiCopyArtifactStep(List<CopyArtifact> sources) {
+        this.sources = (sources != null) ? new ArrayList<>(sources) : Collections.<CopyArtifact>emptyList();
+    }
+
+    @Nonnull
+    public List<CopyArtifact> getSources() {
+        return Collections.unmodifiableList(sources);
+    }
+
+    @Override
+    public StepExecution start(StepContext context) throws Exception {
+        return new MultiCopyArtifactStepExecution(context, sources);
+    }
+
+    @Extension(optional = true)
+    public static class DescriptorImpl extends StepDescriptor {
+        @Override
+        public String getFunctionName() {
+            return "copyArtifactsFromAll";
+        }
+
+        @Override
+        public String getDisplayName() {
+            return Messages.MultiCopyArtifactStep_DisplayName();
+        }
+
+        @Override
+        public Set<? extends Class<?>> getRequiredContext() {
+            return ImmutableSet.of(Run.class, FilePath.class, Launcher.class, TaskListener.class);
+        }
+    }
+}
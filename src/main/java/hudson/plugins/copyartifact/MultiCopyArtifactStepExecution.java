@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.AbortException;
+import hudson.FilePath;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nonnull;
+import jenkins.model.Jenkins;
+import org.acegisecurity.Authentication;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+
+/**
+ * Resolves sources of {@link MultiCopyArtifactStep} concurrently in the pool of {@link CopyArtifactStepExecution},
+ * and then copies from them one after another in a single {@link CopySession}.
+ * Each source is copied with its own slot of {@link TransferGovernor} and transfers its files by itself;
+ * only applying file attributes and recording fingerprints are shared.
+ *
+ * No thread waits for other tasks: the task resolving the last source schedules the copy.
+ * When any source is a dry run, the step returns the plans of those sources in order.
+ */
+class MultiCopyArtifactStepExecution extends StepExecution {
+    private static final long serialVersionUID = 1L;
+
+    private final transient List<CopyArtifact> sources;
+    private final transient List<Future<?>> tasks = new ArrayList<>();
+    private transient volatile boolean stopped;
+    private transient volatile CompletableFuture<Object> result;
+
+    MultiCopyArtifactStepExecution(@Nonnull StepContext context, @Nonnull List<CopyArtifact> sources) {
+        super(context);
+        this.sources = sources;
+    }
+
+    @Override
+    public boolean start() throws Exception {
+        final StepContext context = getContext();
+        if (sources.isEmpty()) {
+            context.onSuccess(null);
+            return true;
+        }
+        final Run<?, ?> run = context.get(Run.class);
+        final FilePath workspace = context.get(FilePath.class);
+        final TaskListener listener = context.get(TaskListener.class);
+        // pool threads don't inherit the authentication the build runs as.
+        final Authentication auth = Jenkins.getAuthentication();
+        final AtomicReferenceArray<CopyArtifact.Source> resolved = new AtomicReferenceArray<>(sources.size());
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final AtomicInteger pending = new AtomicInteger(sources.size());
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        this.result = result;
+        for (int i = 0; i < sources.size(); ++i) {
+            final int index = i;
+            final CopyArtifact spec = sources.get(i);
+            submit(new Runnable() {
+                @Override
+                public void run() {
+                    try (ACLContext ctx = ACL.as(auth)) {
+                        CopyArtifact.Source source = spec.resolve(run, listener);
+                        resolved.set(index, source);
+                        spec.select(source, run, listener);
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    }
+                    if (pending.decrementAndGet() == 0) {
+                        submit(new Runnable() {
+                            @Override
+                            public void run() {
+                                try (ACLContext ctx = ACL.as(auth)) {
+                                    result.complete(copy(run, workspace, listener, resolved, failure.get()));
+                                } catch (Throwable t) {
+                                    result.completeExceptionally(t);
+                                }
+                            }
+                        });
+                    }
+                }
+            });
+        }
+        result.whenComplete((v, t) -> {
+            if (t == null) {
+                context.onSuccess(v);
+            } else {
+                context.onFailure(t);
+            }
+        });
+        return false;
+    }
+
+    private void submit(Runnable task) {
+        synchronized (tasks) {
+            if (stopped) {
+                return;
+            }
+            tasks.add(CopyArtifactStepExecution.getExecutor().submit(task));
+        }
+    }
+
+    /**
+     * @return plans of sources performed as dry runs, or {@code null} if no source is a dry run.
+     */
+    private List<Map<String, Object>> copy(Run<?, ?> run, FilePath workspace, TaskListener listener,
+            AtomicReferenceArray<CopyArtifact.Source> resolved, Throwable failure) throws Throwable {
+        CopyArtifactMetrics metrics = CopyArtifactMetrics.get();
+        for (int i = 0; i < sources.size(); ++i) {
+            // balanced with finished() or failed() below, even if the copy is never performed.
+            metrics.started();
+        }
+        CopySession session = new CopySession(listener, false, false, null);
+        List<Map<String, Object>> plans = null;
+        boolean succeeded = false;
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            for (int i = 0; i < sources.size(); ++i) {
+                CopyArtifact spec = sources.get(i);
+                CopyArtifact.Source source = resolved.get(i);
+                if (spec.isDryRun()) {
+                    if (plans == null) {
+                        plans = new ArrayList<>();
+                    }
+                    plans.add(spec.plan(source, run, workspace, listener).toMap());
+                    continue;
+                }
+                if (source.getBuild() == null) {
+                    // optional and not found
+                    continue;
+                }
+                CopySession child = session.child(spec.isFingerprintArtifacts(), spec.isFlatten(), source.getStatistics());
+                try (TransferGovernor.Permit permit = TransferGovernor.get().acquire(source.getJob().getFullName(), listener)) {
+                    child.setPermit(permit);
+                    spec.copy(source, run, workspace, child);
+                }
+            }
+            session.applyMetadata();
+            succeeded = true;
+            return plans;
+        } finally {
+            session.recordBuildFingerprints(run);
+            for (int i = 0; i < sources.size(); ++i) {
+                CopyArtifact.Source source = resolved.get(i);
+                if (source != null) {
+                    CopyStatisticsAction.record(run, source.getStatistics());
+                    metrics.finished(source.getStatistics(), succeeded);
+                } else {
+                    // the project is not found or not readable.
+                    metrics.failed();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void stop(@Nonnull Throwable cause) throws Exception {
+        CompletableFuture<Object> r = result;
+        if (r != null) {
+            // tasks cancelled before running never complete the result.
+            r.completeExceptionally(cause);
+        }
+        synchronized (tasks) {
+            stopped = true;
+            for (Future<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+
+    @Override
+    public void onResume() {
+        getContext().onFailure(new AbortException(Messages.CopyArtifactStep_Resumed()));
+    }
+
+    @Override
+    public String getStatus() {
+        synchronized (tasks) {
+            int running = 0;
+            for (Future<?> task : tasks) {
+                if (!task.isDone()) {
+                    ++running;
+                }
+            }
+            return String.format("%d sources, %d tasks running", sources.size(), running);
+        }
+    }
+}
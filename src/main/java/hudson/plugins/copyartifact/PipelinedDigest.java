@@ -0,0 +1,194 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nonnull;
+
+/**
+ * Copies a stream while calculating its digest in another thread,
+ * so that copying is not limited by the speed of calculating the digest on a single core.
+ *
+ * Chunks read from the stream are passed to a hashing thread through a fixed number of buffers,
+ * and are written while the hashing thread digests them.
+ * Digests of files copied concurrently are calculated in different threads.
+ * The hashing thread always exits before the copy returns, and is not started at all if the copy fails
+ * while it is still queued,
+ * as the digest and buffers belong to the {@link TransferContext} of the copying thread.
+ */
+final class PipelinedDigest {
+    /**
+     * Whether to calculate digests in other threads.
+     * Also applies to files downloaded by agents from external URLs.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ boolean ENABLED = Boolean.getBoolean(CopyArtifact.class.getName() + ".pipelinedDigest");
+
+    /**
+     * The number of buffers passed between the copying thread and the hashing thread.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ int BUFFERS = Integer.getInteger(CopyArtifact.class.getName() + ".pipelinedDigestBuffers", 4);
+
+    static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+
+    private static ExecutorService executor;
+
+    private PipelinedDigest() {
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                    POOL_SIZE, POOL_SIZE,
+                    60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new NamingThreadFactory(new DaemonThreadFactory(), "CopyArtifact digest")
+            );
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    /**
+     * Stops the hashing threads on the controller when the plugin is stopped.
+     */
+    static synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Copies a stream, calculating the digest in another thread.
+     *
+     * @param in the stream to read to the end
+     * @param out the stream to write to
+     * @param digest updated with copied bytes when this returns
+     * @return the number of copied bytes.
+     */
+    static long copy(@Nonnull InputStream in, @Nonnull OutputStream out, @Nonnull MessageDigest digest) throws IOException {
+        byte[][] buffers = TransferContext.get().buffers(Math.max(BUFFERS, 2));
+        BlockingQueue<Chunk> free = new ArrayBlockingQueue<>(buffers.length);
+        BlockingQueue<Chunk> filled = new ArrayBlockingQueue<>(buffers.length + 1);
+        for (byte[] buffer : buffers) {
+            free.add(new Chunk(buffer));
+        }
+        AtomicBoolean started = new AtomicBoolean();
+        CountDownLatch exited = new CountDownLatch(1);
+        Future<?> hashing = getExecutor().submit(() -> {
+            if (!started.compareAndSet(false, true)) {
+                // the copy failed before this task was taken from the queue.
+                return null;
+            }
+            try {
+                while (true) {
+                    Chunk c = filled.take();
+                    if (c.length < 0) {
+                        return null;
+                    }
+                    digest.update(c.buffer, 0, c.length);
+                    free.put(c);
+                }
+            } finally {
+                exited.countDown();
+            }
+        });
+        boolean completed = false;
+        try {
+            long count = 0;
+            while (true) {
+                Chunk c = free.take();
+                c.length = in.read(c.buffer);
+                if (c.length < 0) {
+                    filled.put(c);
+                    break;
+                }
+                // the hashing thread only reads the buffer, so it can be written at the same time.
+                filled.put(c);
+                out.write(c.buffer, 0, c.length);
+                count += c.length;
+            }
+            hashing.get();
+            completed = true;
+            return count;
+        } catch (InterruptedException x) {
+            throw (IOException) new InterruptedIOException().initCause(x);
+        } catch (ExecutionException x) {
+            throw new IOException("Failed to calculate the digest", x.getCause());
+        } finally {
+            if (!completed) {
+                boolean running = !started.compareAndSet(false, true);
+                hashing.cancel(true);
+                if (running) {
+                    // the digest and buffers are reused by the next copy in this thread.
+                    awaitUninterruptibly(exited);
+                }
+            }
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException x) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Chunk {
+        private final byte[] buffer;
+        private int length;
+
+        Chunk(byte[] buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.FilePath;
+import hudson.remoting.VirtualChannel;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.MasterToSlaveFileCallable;
+import jenkins.util.VirtualFile;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+
+/**
+ * Coordinates copies of the same artifact to the same agent performed at the same time.
+ *
+ * The first copy transfers the artifact as usual.
+ * Other copies wait for it without holding a slot of {@link TransferGovernor} and copy the transferred file locally on the agent,
+ * falling back to transfer the artifact by themselves if the first copy fails or takes too long,
+ * or the file no longer matches the digest calculated by the first copy.
+ */
+final class SingleFlightCopy {
+    /**
+     * Transfer an artifact once when it is copied to the same agent by multiple copies at the same time.
+     * Every transfer to agents calculates the digest of the artifact when enabled, even without fingerprinting.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ boolean ENABLED = Boolean.getBoolean(CopyArtifact.class.getName() + ".singleFlight");
+
+    /**
+     * Seconds to wait for the first copy before transferring the artifact by itself.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ int FOLLOW_TIMEOUT = Integer.getInteger(CopyArtifact.class.getName() + ".singleFlightTimeout", 300);
+
+    private static final Map<Key, CompletableFuture<Landing>> FLIGHTS = new ConcurrentHashMap<>();
+
+    private final Key key;
+    private final CompletableFuture<Landing> landed;
+    private final boolean leader;
+
+    private SingleFlightCopy(Key key, CompletableFuture<Landing> landed, boolean leader) {
+        this.key = key;
+        this.landed = landed;
+        this.leader = leader;
+    }
+
+    /**
+     * Starts copying an artifact.
+     *
+     * @param s the artifact to copy
+     * @param d the file to copy to
+     * @return the flight of the artifact, or {@code null} if the copy cannot be shared.
+     */
+    @CheckForNull
+    static SingleFlightCopy begin(@Nonnull VirtualFile s, @Nonnull FilePath d) throws IOException {
+        VirtualChannel channel = d.getChannel();
+        if (!ENABLED || !d.isRemote() || channel == null) {
+            return null;
+        }
+        Key key = new Key(channel, s.toURI().toString(), s.length(), s.lastModified());
+        CompletableFuture<Landing> landed = new CompletableFuture<>();
+        CompletableFuture<Landing> existing = FLIGHTS.putIfAbsent(key, landed);
+        if (existing != null) {
+            return new SingleFlightCopy(key, existing, false);
+        }
+        return new SingleFlightCopy(key, landed, true);
+    }
+
+    /**
+     * @return whether this copy should transfer the artifact.
+     */
+    boolean isLeader() {
+        return leader;
+    }
+
+    /**
+     * Waits for the leader and copies the file it transferred.
+     *
+     * @param d the file to copy to
+     * @return the MD5 digest of the copied file, or {@code null} if the artifact should be transferred by this copy.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @CheckForNull
+    byte[] follow(@Nonnull FilePath d) throws IOException, InterruptedException {
+        Landing landing;
+        try {
+            landing = landed.get(FOLLOW_TIMEOUT, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // the leader failed or stalled. try by ourselves.
+            return null;
+        }
+        return d.act(new LocalCopy(landing.file.getRemote(), key.length, landing.digest));
+    }
+
+    /**
+     * Finishes the transfer and lets followers copy the file.
+     *
+     * @param d the transferred file, or {@code null} if failed
+     * @param digest the MD5 digest of the transferred file, or {@code null} if failed
+     */
+    void land(@CheckForNull FilePath d, @CheckForNull byte[] digest) {
+        if (!leader) {
+            return;
+        }
+        FLIGHTS.remove(key, landed);
+        if (d != null && digest != null) {
+            landed.complete(new Landing(d, digest));
+        } else {
+            landed.completeExceptionally(new IOException("Failed to copy " + key.uri));
+        }
+    }
+
+    private static final class Landing {
+        private final FilePath file;
+        private final byte[] digest;
+
+        Landing(FilePath file, byte[] digest) {
+            this.file = file;
+            this.digest = digest;
+        }
+    }
+
+    private static final class Key {
+        private final VirtualChannel channel;
+        private final String uri;
+        private final long length;
+        private final long lastModified;
+
+        Key(VirtualChannel channel, String uri, long length, long lastModified) {
+            this.channel = channel;
+            this.uri = uri;
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return channel == k.channel && uri.equals(k.uri) && length == k.length && lastModified == k.lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(channel) * 31 + uri.hashCode()) * 31 + Long.hashCode(length);
+        }
+    }
+
+    /**
+     * Copies a file transferred by another copy on the agent.
+     *
+     * @return the MD5 digest of the file, or {@code null} if the file is modified.
+     */
+    private static final class LocalCopy extends MasterToSlaveFileCallable<byte[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final String source;
+        private final long length;
+        private final byte[] digest;
+
+        LocalCopy(String source, long length, byte[] digest) {
+            this.source = source;
+            this.length = length;
+            this.digest = digest;
+        }
+
+        @Override
+        public byte[] invoke(File f, VirtualChannel channel) throws IOException, InterruptedException {
+            File src = new File(source);
+            if (!src.isFile() || src.length() != length) {
+                return null;
+            }
+            MessageDigest md5 = CopyArtifact.md5();
+            if (src.getCanonicalFile().equals(f.getCanonicalFile())) {
+                try (InputStream is = new FileInputStream(src)) {
+                    IOUtils.copy(is, new DigestOutputStream(NullOutputStream.NULL_OUTPUT_STREAM, md5));
+                }
+                return verify(md5.digest());
+            }
+            hudson.util.IOUtils.mkdirs(f.getParentFile());
+            long copied;
+            try (InputStream is = new FileInputStream(src); OutputStream os = new FileOutputStream(f)) {
+                copied = IOUtils.copyLarge(is, new DigestOutputStream(os, md5));
+            }
+            return copied == length ? verify(md5.digest()) : null;
+        }
+
+        /**
+         * @return the digest if the copied file is the one transferred by the leader.
+         */
+        @CheckForNull
+        private byte[] verify(byte[] copied) {
+            return MessageDigest.isEqual(copied, digest) ? copied : null;
+        }
+    }
+}
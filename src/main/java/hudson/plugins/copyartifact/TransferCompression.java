@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import org.jvnet.localizer.Localizable;
+
+/**
+ * Whether to compress artifacts while transferring them to agents.
+ *
+ * Copied files are not compressed, and their digests and timestamps are not affected.
+ */
+public enum TransferCompression {
+    /**
+     * Transfer artifacts as they are.
+     */
+    NONE(Messages._TransferCompression_None()),
+    /**
+     * Compress all artifacts.
+     */
+    ALWAYS(Messages._TransferCompression_Always()),
+    /**
+     * Compress artifacts which look compressible by their extensions or sampled contents.
+     */
+    AUTO(Messages._TransferCompression_Auto());
+
+    private final Localizable displayName;
+
+    TransferCompression(Localizable displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName.toString();
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Buffers and digests reused by copies performed in the same thread,
+ * so that copying many small files doesn't allocate them for each file.
+ *
+ * Instances are confined to a thread and must not be passed to other threads.
+ * A buffer or digest obtained from the context is valid until it is obtained again.
+ */
+final class TransferContext {
+    /**
+     * The size of buffers to copy artifacts with.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "Allow runtime modification")
+    static /* not final */ int CHUNK_SIZE = Integer.getInteger(CopyArtifact.class.getName() + ".chunkSize", 64 * 1024);
+
+    private static final ThreadLocal<TransferContext> CONTEXT = new ThreadLocal<TransferContext>() {
+        @Override
+        protected TransferContext initialValue() {
+            return new TransferContext();
+        }
+    };
+
+    private final MessageDigest md5 = CopyArtifact.md5();
+    @CheckForNull
+    private byte[] buffer;
+    @CheckForNull
+    private ByteBuffer directBuffer;
+    @CheckForNull
+    private byte[][] buffers;
+
+    private TransferContext() {
+    }
+
+    /**
+     * @return the context of the current thread.
+     */
+    @Nonnull
+    static TransferContext get() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * @return the MD5 digest reset to calculate a new digest.
+     */
+    @Nonnull
+    MessageDigest md5() {
+        md5.reset();
+        return md5;
+    }
+
+    /**
+     * @return the buffer of {@link #CHUNK_SIZE} bytes.
+     */
+    @Nonnull
+    byte[] buffer() {
+        if (buffer == null || buffer.length != CHUNK_SIZE) {
+            buffer = new byte[CHUNK_SIZE];
+        }
+        return buffer;
+    }
+
+    /**
+     * @param count the number of buffers
+     * @return buffers of {@link #CHUNK_SIZE} bytes, other than {@link #buffer()}.
+     */
+    @Nonnull
+    byte[][] buffers(int count) {
+        if (buffers == null || buffers.length != count || buffers[0].length != CHUNK_SIZE) {
+            buffers = new byte[count][CHUNK_SIZE];
+        }
+        return buffers;
+    }
+
+    /**
+     * @return the cleared direct buffer of {@link #CHUNK_SIZE} bytes.
+     */
+    @Nonnull
+    ByteBuffer directBuffer() {
+        if (directBuffer == null || directBuffer.capacity() != CHUNK_SIZE) {
+            directBuffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        }
+        directBuffer.clear();
+        return directBuffer;
+    }
+
+    /**
+     * Copies a stream with the buffer of this context.
+     *
+     * @param in the stream to read to the end
+     * @param out the stream to write to
+     * @param digest updated with copied bytes, or {@code null} not to calculate the digest
+     * @return the number of copied bytes.
+     */
+    long copy(@Nonnull InputStream in, @Nonnull OutputStream out, @CheckForNull MessageDigest digest) throws IOException {
+        byte[] buf = buffer();
+        long count = 0;
+        int n;
+        while ((n = in.read(buf)) >= 0) {
+            if (digest != null) {
+                digest.update(buf, 0, n);
+            }
+            out.write(buf, 0, n);
+            count += n;
+        }
+        return count;
+    }
+}
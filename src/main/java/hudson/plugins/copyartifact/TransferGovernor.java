@@ -0,0 +1,341 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.model.TaskListener;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * Limits copies performed at the same time and bytes transferred per second
+ * as configured in {@link CopyArtifactConfiguration}.
+ *
+ * Copies waiting for a slot are started in the order they are queued,
+ * skipping copies which still exceed the limit of their source project.
+ */
+final class TransferGovernor {
+    private static final TransferGovernor INSTANCE = new TransferGovernor();
+
+    /**
+     * Bytes allowed to be transferred at once after an idle period, in seconds of the limit.
+     */
+    private static final long BURST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final List<Ticket> queue = new ArrayList<>();
+    private final Map<String, ProjectState> projects = new HashMap<>();
+    private final Throttle throttle = new Throttle();
+    private int running;
+
+    @Nonnull
+    static TransferGovernor get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Waits for a slot to copy.
+     *
+     * @param project the full name of the project to copy from
+     * @param listener where to report why the copy waits
+     * @return the slot to release after the copy.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Nonnull
+    Permit acquire(@Nonnull String project, @Nonnull TaskListener listener) throws InterruptedException {
+        return new Permit(await(project, listener));
+    }
+
+    @Nonnull
+    private ProjectState await(@Nonnull String project, @Nonnull TaskListener listener) throws InterruptedException {
+        Ticket ticket = new Ticket(project);
+        synchronized (this) {
+            ProjectState state = state(project);
+            queue.add(ticket);
+            boolean acquired = false;
+            try {
+                String reported = null;
+                String reason;
+                while ((reason = getWaitReason(ticket)) != null) {
+                    if (!reason.equals(reported)) {
+                        listener.getLogger().println(reason);
+                        reported = reason;
+                    }
+                    // wake up periodically in case the limits are changed.
+                    wait(TimeUnit.SECONDS.toMillis(10));
+                }
+                acquired = true;
+            } finally {
+                queue.remove(ticket);
+                if (!acquired) {
+                    cleanup(state);
+                }
+                notifyAll();
+            }
+            ++running;
+            ++state.running;
+            return state;
+        }
+    }
+
+    /**
+     * Wakes up copies waiting for slots to apply new limits.
+     */
+    synchronized void configurationChanged() {
+        notifyAll();
+    }
+
+    @Nonnull
+    private ProjectState state(@Nonnull String project) {
+        ProjectState state = projects.get(project);
+        if (state == null) {
+            state = new ProjectState(project);
+            projects.put(project, state);
+        }
+        return state;
+    }
+
+    /**
+     * @return why the copy cannot start yet, or {@code null} if it can start.
+     */
+    @CheckForNull
+    private String getWaitReason(@Nonnull Ticket ticket) {
+        CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+        int max = config != null ? config.getMaxConcurrentCopies() : 0;
+        int maxPerProject = config != null ? config.getMaxConcurrentCopiesPerProject() : 0;
+        if (max > 0 && running >= max) {
+            return Messages.TransferGovernor_WaitingForSlot(running, max, queue.indexOf(ticket));
+        }
+        for (Ticket t : queue) {
+            if (t == ticket) {
+                break;
+            }
+            if (maxPerProject <= 0 || projects.get(t.project).running < maxPerProject) {
+                // let a copy queued earlier go first.
+                return Messages.TransferGovernor_WaitingForQueue(queue.indexOf(ticket));
+            }
+        }
+        if (maxPerProject > 0) {
+            int projectRunning = projects.get(ticket.project).running;
+            if (projectRunning >= maxPerProject) {
+                return Messages.TransferGovernor_WaitingForProjectSlot(projectRunning, ticket.project, maxPerProject);
+            }
+        }
+        return null;
+    }
+
+    private synchronized void release(@Nonnull ProjectState state) {
+        --running;
+        --state.running;
+        cleanup(state);
+        notifyAll();
+    }
+
+    /**
+     * Forgets the project when no copies from it are running or waiting.
+     */
+    private void cleanup(@Nonnull ProjectState state) {
+        if (state.running > 0) {
+            return;
+        }
+        for (Ticket t : queue) {
+            if (t.project.equals(state.project)) {
+                return;
+            }
+        }
+        projects.remove(state.project);
+    }
+
+    private static final class Ticket {
+        private final String project;
+
+        Ticket(String project) {
+            this.project = project;
+        }
+    }
+
+    private static final class ProjectState {
+        private final String project;
+        private final Throttle throttle = new Throttle();
+        private int running;
+
+        ProjectState(String project) {
+            this.project = project;
+        }
+    }
+
+    /**
+     * A slot to copy, released with {@link #close()}.
+     */
+    final class Permit implements AutoCloseable {
+        private ProjectState state;
+        private boolean closed;
+        private boolean suspended;
+
+        private Permit(ProjectState state) {
+            this.state = state;
+        }
+
+        /**
+         * @param in the contents of an artifact
+         * @return the stream limiting bytes read per second, or {@code in} if there is no limit.
+         */
+        @Nonnull
+        InputStream throttle(@Nonnull InputStream in) {
+            if (!isThrottled()) {
+                return in;
+            }
+            return new ThrottledInputStream(in, CopyArtifactConfiguration.get(), state);
+        }
+
+        /**
+         * @return whether bytes transferred per second are limited.
+         */
+        boolean isThrottled() {
+            CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+            return config != null && (config.getMaxBytesPerSecond() > 0 || config.getMaxBytesPerSecondPerProject() > 0);
+        }
+
+        /**
+         * Releases the slot while the copy waits without transferring anything,
+         * to acquire it again with {@link #resume(TaskListener)}.
+         */
+        void suspend() {
+            if (!closed && !suspended) {
+                suspended = true;
+                release(state);
+            }
+        }
+
+        /**
+         * Waits for a slot again after {@link #suspend()}.
+         * The slot stays released if interrupted.
+         *
+         * @param listener where to report why the copy waits
+         * @throws InterruptedException if interrupted while waiting.
+         */
+        void resume(@Nonnull TaskListener listener) throws InterruptedException {
+            if (!closed && suspended) {
+                state = await(state.project, listener);
+                suspended = false;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                if (!suspended) {
+                    release(state);
+                }
+            }
+        }
+    }
+
+    /**
+     * Schedules transfers at the configured rate.
+     */
+    private static final class Throttle {
+        // the time when the next transfer is allowed, in System.nanoTime().
+        private long next = System.nanoTime();
+
+        /**
+         * Reserves bandwidth to transfer bytes.
+         *
+         * @param bytes the number of bytes to transfer
+         * @param rate bytes per second, or 0 for no limit
+         * @return nanoseconds to wait before the transfer.
+         */
+        synchronized long reserve(long bytes, long rate) {
+            if (rate <= 0) {
+                return 0;
+            }
+            long now = System.nanoTime();
+            if (now - next > BURST_NANOS) {
+                next = now - BURST_NANOS;
+            }
+            next += TimeUnit.SECONDS.toNanos(bytes) / rate;
+            return next - now;
+        }
+    }
+
+    private final class ThrottledInputStream extends FilterInputStream {
+        private final CopyArtifactConfiguration config;
+        private final ProjectState state;
+
+        ThrottledInputStream(InputStream in, CopyArtifactConfiguration config, ProjectState state) {
+            super(in);
+            this.config = config;
+            this.state = state;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                consume(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            if (skipped > 0) {
+                consume(skipped);
+            }
+            return skipped;
+        }
+
+        private void consume(long bytes) throws IOException {
+            long wait = Math.max(
+                    throttle.reserve(bytes, config.getMaxBytesPerSecond()),
+                    state.throttle.reserve(bytes, config.getMaxBytesPerSecondPerProject())
+            );
+            if (wait > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                } catch (InterruptedException e) {
+                    throw (IOException) new InterruptedIOException().initCause(e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.AbortException;
+import hudson.model.Run;
+import javax.annotation.Nonnull;
+import org.jenkinsci.plugins.workflow.steps.StepContext;
+import org.jenkinsci.plugins.workflow.steps.StepExecution;
+
+/**
+ * Completes {@link WaitForCopyArtifactsStep} when the copy finishes,
+ * without holding any thread while waiting.
+ *
+ * Stopping the step interrupts the copy.
+ */
+class WaitForCopyArtifactsStepExecution extends StepExecution {
+    private static final long serialVersionUID = 1L;
+
+    private final String handle;
+    private transient volatile BackgroundCopies.Pending pending;
+
+    WaitForCopyArtifactsStepExecution(@Nonnull StepContext context, String handle) {
+        super(context);
+        this.handle = handle;
+    }
+
+    @Override
+    public boolean start() throws Exception {
+        final StepContext context = getContext();
+        Run<?, ?> run = context.get(Run.class);
+        BackgroundCopies.Pending p = (handle != null) ? BackgroundCopies.remove(run, handle) : null;
+        if (p == null) {
+            throw new AbortException(Messages.WaitForCopyArtifactsStep_UnknownHandle(handle));
+        }
+        pending = p;
+        p.getResult().whenComplete((v, t) -> {
+            if (t == null) {
+                context.onSuccess(v);
+            } else {
+                context.onFailure(t);
+            }
+        });
+        return false;
+    }
+
+    @Override
+    public void stop(@Nonnull Throwable cause) throws Exception {
+        BackgroundCopies.Pending p = pending;
+        if (p != null) {
+            // completes the step through the result.
+            p.cancel(cause);
+        } else {
+            getContext().onFailure(cause);
+        }
+    }
+
+    @Override
+    public void onResume() {
+        getContext().onFailure(new AbortException(Messages.CopyArtifactStep_Resumed()));
+    }
+
+    @Override
+    public String getStatus() {
+        BackgroundCopies.Pending p = pending;
+        if (p == null) {
+            return "not waiting";
+        }
+        return p.getResult().isDone() ? "finished" : "waiting for copy " + handle;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.model.Run;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import jenkins.model.ArtifactManager;
+import jenkins.util.VirtualFile;
+
+/**
+ * Reads artifacts stored in a zip file by the compress-artifacts plugin.
+ *
+ * The artifact manager of the plugin opens the zip file for each artifact.
+ * This opens it once and reads artifacts in the order they are stored,
+ * so copying many artifacts reads the zip file forward instead of seeking back and forth.
+ */
+final class ZipArtifacts implements Closeable {
+    private static final String MANAGER = "org.jenkinsci.plugins.compress_artifacts.CompressingArtifactManager";
+
+    private static final Logger LOGGER = Logger.getLogger(ZipArtifacts.class.getName());
+
+    private final ZipFile zip;
+
+    ZipArtifacts(@Nonnull File archive) throws IOException {
+        this.zip = new ZipFile(archive);
+    }
+
+    /**
+     * @param build the build artifacts are copied from
+     * @param srcDir the artifacts to copy
+     * @return the zip file artifacts are stored in, or {@code null} if they are not stored by the compress-artifacts plugin.
+     */
+    @CheckForNull
+    static File getArchive(@Nonnull Run<?, ?> build, @Nonnull VirtualFile srcDir) {
+        ArtifactManager manager = build.getArtifactManager();
+        if (!MANAGER.equals(manager.getClass().getName())) {
+            return null;
+        }
+        File archive = new File(build.getRootDir(), "archive.zip");
+        if (!archive.isFile() || !srcDir.toURI().equals(manager.root().toURI())) {
+            return null;
+        }
+        return archive;
+    }
+
+    /**
+     * Reads artifacts in the order they are stored.
+     *
+     * @param entries paths of artifacts to read
+     * @param visitor called with the contents of each artifact
+     * @return paths of artifacts not found in the zip file.
+     */
+    @Nonnull
+    Collection<String> read(@Nonnull Collection<String> entries, @Nonnull Visitor visitor) throws IOException, InterruptedException {
+        Set<String> remaining = new LinkedHashSet<>(entries);
+        Enumeration<? extends ZipEntry> e = zip.entries();
+        while (e.hasMoreElements() && !remaining.isEmpty()) {
+            ZipEntry entry = e.nextElement();
+            if (entry.isDirectory() || !remaining.remove(entry.getName())) {
+                continue;
+            }
+            // stored entries are read as is, deflated ones are inflated as the artifact manager does.
+            try (InputStream in = zip.getInputStream(entry)) {
+                visitor.visit(entry.getName(), in);
+            }
+        }
+        return remaining;
+    }
+
+    @Override
+    public void close() {
+        try {
+            zip.close();
+        } catch (IOException x) {
+            LOGGER.log(Level.FINE, "Failed to close " + zip.getName(), x);
+        }
+    }
+
+    /**
+     * Receives contents of artifacts.
+     */
+    interface Visitor {
+        /**
+         * @param entry the path of the artifact
+         * @param in the contents of the artifact, closed after this returns
+         */
+        void visit(@Nonnull String entry, @Nonnull InputStream in) throws IOException, InterruptedException;
+    }
+}
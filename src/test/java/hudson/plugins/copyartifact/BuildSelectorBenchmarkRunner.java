@@ -0,0 +1,208 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.EnvVars;
+import hudson.Launcher;
+import hudson.model.AbstractBuild;
+import hudson.model.BuildListener;
+import hudson.model.Cause;
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.ParametersAction;
+import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Result;
+import hudson.model.Run;
+import hudson.model.StringParameterDefinition;
+import hudson.model.StringParameterValue;
+import hudson.plugins.copyartifact.testutils.CopyArtifactUtil;
+import hudson.plugins.copyartifact.testutils.FileWriteBuilder;
+import hudson.tasks.ArtifactArchiver;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import jenkins.model.lazy.AbstractLazyLoadRunMap;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestBuilder;
+
+/**
+ * Measures how {@link BuildSelector}s scale with the length of the build history.
+ *
+ * Generates a project with synthetic builds having mixed results, parameters,
+ * keep-log flags, upstream causes and fingerprints, and measures the latency of
+ * {@link BuildSelector#getBuild(hudson.model.Job, EnvVars, BuildFilter, Run)}
+ * and the number of builds loaded from the disk to select a build.
+ * Builds are evicted from memory before each measurement.
+ *
+ * Not run as a part of usual tests. Run with
+ * {@code mvn test -Dbenchmark -Dtest=BuildSelectorBenchmarkRunner},
+ * which writes results to {@code target/selector-benchmark.json}.
+ * Following system properties are available:
+ * <dl>
+ *   <dt>benchmark.builds</dt>
+ *   <dd>The number of builds to generate. Defaults to 2000.</dd>
+ *   <dt>benchmark.iterations</dt>
+ *   <dd>The number of measurements for each selector. Defaults to 5.</dd>
+ * </dl>
+ */
+public class BuildSelectorBenchmarkRunner {
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+    {
+        // generating builds takes long.
+        j.timeout = 0;
+    }
+
+    private static final String RARE_VALUE = "rare";
+
+    @Test
+    public void runBenchmarks() throws Exception {
+        int builds = Integer.getInteger("benchmark.builds", 2000);
+        int iterations = Integer.getInteger("benchmark.iterations", 5);
+
+        FreeStyleProject upstream = j.createFreeStyleProject("upstream");
+        upstream.getBuildersList().add(new FileWriteBuilder("upstream.txt", "${BUILD_TAG}"));
+        ArtifactArchiver upstreamArchiver = new ArtifactArchiver("upstream.txt");
+        upstreamArchiver.setFingerprint(true);
+        upstream.getPublishersList().add(upstreamArchiver);
+        int upstreamBuilds = Math.max(1, builds / 100);
+        for (int i = 1; i <= upstreamBuilds; ++i) {
+            j.assertBuildStatusSuccess(upstream.scheduleBuild2(0));
+        }
+
+        FreeStyleProject copiee = j.createFreeStyleProject("copiee");
+        copiee.addProperty(new ParametersDefinitionProperty(
+                new StringParameterDefinition("PARAM", "", ""),
+                new StringParameterDefinition("RESULT", "SUCCESS", ""),
+                new StringParameterDefinition("UPSTREAM", "0", "")
+        ));
+        // UPSTREAM=0 selects no build and results in no upstream relationship.
+        copiee.getBuildersList().add(CopyArtifactUtil.createCopyArtifact(
+                "upstream", null, new SpecificBuildSelector("$UPSTREAM"), "upstream.txt", "", false, true, true));
+        copiee.getBuildersList().add(new FileWriteBuilder("artifact.txt", "${BUILD_TAG}"));
+        copiee.getBuildersList().add(new ResultBuilder());
+        ArtifactArchiver copieeArchiver = new ArtifactArchiver("artifact.txt");
+        copieeArchiver.setFingerprint(true);
+        copiee.getPublishersList().add(copieeArchiver);
+
+        FreeStyleBuild first = null;
+        for (int i = 1; i <= builds; ++i) {
+            Result result = (i % 7 == 0) ? Result.FAILURE
+                    : (i % 5 == 0) ? Result.UNSTABLE
+                    : Result.SUCCESS;
+            String param = (i == 1) ? RARE_VALUE : "value" + (i % 20);
+            int upstreamNumber = (i % 10 == 1) ? (int)((long)(i - 1) * upstreamBuilds / builds) + 1 : 0;
+            Cause cause = (upstreamNumber > 0)
+                    ? new Cause.UpstreamCause((Run<?, ?>)upstream.getBuildByNumber(upstreamNumber))
+                    : new Cause.UserIdCause();
+            FreeStyleBuild b = copiee.scheduleBuild2(0, cause, new ParametersAction(
+                    new StringParameterValue("PARAM", param),
+                    new StringParameterValue("RESULT", result.toString()),
+                    new StringParameterValue("UPSTREAM", Integer.toString(upstreamNumber))
+            )).get();
+            j.assertBuildStatus(result, b);
+            if (i % 100 == 1) {
+                b.keepLog(true);
+            }
+            if (first == null) {
+                first = b;
+            }
+        }
+
+        // triggered by the oldest build so that selectors have to look into the whole history.
+        FreeStyleProject copier = j.createFreeStyleProject("copier");
+        FreeStyleBuild parent = j.assertBuildStatusSuccess(copier.scheduleBuild2(0, new Cause.UpstreamCause((Run<?, ?>)first)));
+
+        JSONArray results = new JSONArray();
+        results.add(measure("StatusBuildSelector(stable)", copiee, parent, iterations,
+                new StatusBuildSelector(true), new BuildFilter()));
+        results.add(measure("StatusBuildSelector(successful)", copiee, parent, iterations,
+                new StatusBuildSelector(false), new BuildFilter()));
+        results.add(measure("ParametersBuildFilter(recent)", copiee, parent, iterations,
+                new StatusBuildSelector(false), new ParametersBuildFilter("PARAM=value" + (builds % 20))));
+        results.add(measure("ParametersBuildFilter(oldest)", copiee, parent, iterations,
+                new StatusBuildSelector(false), new ParametersBuildFilter("PARAM=" + RARE_VALUE)));
+        results.add(measure("SavedBuildSelector", copiee, parent, iterations,
+                new SavedBuildSelector(), new BuildFilter()));
+        results.add(measure("TriggeredBuildSelector", copiee, parent, iterations,
+                new TriggeredBuildSelector(false, TriggeredBuildSelector.UpstreamFilterStrategy.UseGlobalSetting, false), new BuildFilter()));
+        results.add(measure("DownstreamBuildSelector", copiee, parent, iterations,
+                new DownstreamBuildSelector("upstream", "1"), new BuildFilter()));
+        results.add(measure("SpecificBuildSelector(oldest)", copiee, parent, iterations,
+                new SpecificBuildSelector("1"), new BuildFilter()));
+        results.add(measure("SpecificBuildSelector(newest)", copiee, parent, iterations,
+                new SpecificBuildSelector(Integer.toString(builds)), new BuildFilter()));
+
+        JSONObject report = new JSONObject();
+        report.put("builds", builds);
+        report.put("iterations", iterations);
+        report.put("results", results);
+        File out = new File(System.getProperty("benchmark.selectorResult", "target/selector-benchmark.json"));
+        FileUtils.writeStringToFile(out, report.toString(2), "UTF-8");
+        System.out.println(report.toString(2));
+    }
+
+    private JSONObject measure(String name, FreeStyleProject job, Run<?, ?> parent, int iterations,
+            BuildSelector selector, BuildFilter filter) throws Exception {
+        AbstractLazyLoadRunMap<FreeStyleBuild> runs = (AbstractLazyLoadRunMap<FreeStyleBuild>)job._getRuns();
+        EnvVars env = parent.getEnvironment(j.createTaskListener());
+        long[] latencies = new long[iterations];
+        int loaded = 0;
+        Run<?, ?> selected = null;
+        for (int i = 0; i < iterations; ++i) {
+            runs.purgeCache();
+            long start = System.nanoTime();
+            selected = selector.getBuild(job, env, filter, parent);
+            latencies[i] = System.nanoTime() - start;
+            loaded = runs.getLoadedBuilds().size();
+        }
+        Arrays.sort(latencies);
+
+        JSONObject result = new JSONObject();
+        result.put("selector", name);
+        result.put("selected", (selected != null) ? selected.getNumber() : -1);
+        result.put("runsLoaded", loaded);
+        result.put("minMillis", latencies[0] / 1000000.0);
+        result.put("medianMillis", latencies[iterations / 2] / 1000000.0);
+        result.put("maxMillis", latencies[iterations - 1] / 1000000.0);
+        return result;
+    }
+
+    /**
+     * Sets the build result to the value of {@code RESULT} parameter.
+     */
+    public static class ResultBuilder extends TestBuilder {
+        @Override
+        public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener)
+                throws InterruptedException, IOException {
+            build.setResult(Result.fromString(build.getBuildVariables().get("RESULT")));
+            return true;
+        }
+    }
+}
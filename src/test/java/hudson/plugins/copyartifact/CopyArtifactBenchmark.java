@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.TaskListener;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import jenkins.util.VirtualFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of copying artifacts from a local {@link VirtualFile} to a local {@link FilePath}.
+ *
+ * Run with {@code mvn test -Dbenchmark}. See {@link CopyArtifactBenchmarkRunner}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class CopyArtifactBenchmark {
+    /**
+     * Files to copy, in the form of {@code COUNTxSIZE}.
+     */
+    @Param({"10x1073741824", "1000x1048576", "100000x1024"})
+    public String shape;
+
+    @Param({"false", "true"})
+    public boolean fingerprint;
+
+    /**
+     * Whether to add a symlink for each file.
+     */
+    @Param({"false", "true"})
+    public boolean symlinks;
+
+    private File workDir;
+    private File sourceDir;
+    private File targetDir;
+
+    @Setup(Level.Trial)
+    public void createArtifacts() throws IOException {
+        int x = shape.indexOf('x');
+        int count = Integer.parseInt(shape.substring(0, x));
+        long size = Long.parseLong(shape.substring(x + 1));
+
+        workDir = Files.createTempDirectory("copyartifact-benchmark").toFile();
+        sourceDir = new File(workDir, "source");
+        targetDir = new File(workDir, "target");
+        byte[] chunk = new byte[(int) Math.min(size, 1024 * 1024)];
+        new Random(0).nextBytes(chunk);
+        for (int i = 0; i < count; ++i) {
+            // keep directories reasonably small as real artifacts do.
+            File dir = new File(sourceDir, String.format("dir%d", i / 100));
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Failed to create " + dir);
+            }
+            File file = new File(dir, String.format("file%d.bin", i));
+            try (OutputStream out = Files.newOutputStream(file.toPath())) {
+                for (long written = 0; written < size; written += chunk.length) {
+                    out.write(chunk, 0, (int) Math.min(chunk.length, size - written));
+                }
+            }
+            if (symlinks) {
+                Files.createSymbolicLink(new File(dir, file.getName() + ".link").toPath(), file.toPath().getFileName());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteArtifacts() throws IOException {
+        Util.deleteRecursive(workDir);
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteTarget() throws IOException {
+        Util.deleteRecursive(targetDir);
+    }
+
+    @Benchmark
+    public Map<String, String> copy() throws Exception {
+        return CopyArtifact.copy(
+                new FilePath(targetDir),
+                VirtualFile.forFile(sourceDir),
+                "**",
+                null,
+                new CopySession(TaskListener.NULL, fingerprint, false, null)
+        );
+    }
+}
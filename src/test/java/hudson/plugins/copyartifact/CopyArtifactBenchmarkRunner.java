@@ -0,0 +1,71 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import org.junit.Test;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs JMH benchmarks in this plugin.
+ *
+ * Not run as a part of usual tests. Run with {@code mvn test -Dbenchmark},
+ * which writes results to {@code target/jmh-report.json}.
+ * Following system properties are available:
+ * <dl>
+ *   <dt>benchmark.include</dt>
+ *   <dd>A regular expression for benchmarks to run. Defaults to all benchmarks in this plugin.</dd>
+ *   <dt>benchmark.params</dt>
+ *   <dd>Overrides parameters of benchmarks, like {@code shape=1000x1024;fingerprint=true}.</dd>
+ *   <dt>benchmark.profilers</dt>
+ *   <dd>Comma separated profilers to use, like {@code gc}.</dd>
+ * </dl>
+ */
+public class CopyArtifactBenchmarkRunner {
+    @Test
+    public void runBenchmarks() throws Exception {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(System.getProperty("benchmark.include", getClass().getPackage().getName() + "\\..*Benchmark"))
+                .forks(1)
+                .shouldFailOnError(true)
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty("benchmark.result", "target/jmh-report.json"));
+        String params = System.getProperty("benchmark.params");
+        if (params != null && !params.isEmpty()) {
+            for (String param : params.split(";")) {
+                int eq = param.indexOf('=');
+                options = options.param(param.substring(0, eq).trim(), param.substring(eq + 1).split(","));
+            }
+        }
+        String profilers = System.getProperty("benchmark.profilers");
+        if (profilers != null && !profilers.isEmpty()) {
+            for (String profiler : profilers.split(",")) {
+                options = options.addProfiler(profiler.trim());
+            }
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026, CopyArtifact plugin contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package hudson.plugins.copyartifact;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.FreeStyleProject;
+import hudson.model.Result;
+import hudson.plugins.copyartifact.testutils.CopyArtifactUtil;
+import hudson.plugins.copyartifact.testutils.FileWriteBuilder;
+import hudson.tasks.ArtifactArchiver;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import jenkins.model.Jenkins;
+import jenkins.util.VirtualFile;
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.JenkinsRule.WebClient;
+import org.jvnet.hudson.test.MockAuthorizationStrategy;
+
+import com.gargoylesoftware.htmlunit.FailingHttpStatusCodeException;
+
+/**
+ * Tests for {@link CopyArtifactMetrics}
+ */
+public class CopyArtifactMetricsTest {
+    @Rule
+    public JenkinsRule j = new JenkinsRule();
+
+    @Test
+    public void testMetrics() throws Exception {
+        FreeStyleProject copiee = j.createFreeStyleProject("copiee");
+        copiee.getBuildersList().add(new FileWriteBuilder("artifact.txt", "foobar"));
+        copiee.getPublishersList().add(new ArtifactArchiver("artifact.txt"));
+        j.buildAndAssertSuccess(copiee);
+
+        FreeStyleProject copier = j.createFreeStyleProject();
+        copier.getBuildersList().add(CopyArtifactUtil.createCopyArtifact("copiee", null, new StatusBuildSelector(), "artifact.txt", "", false, false, true));
+        j.buildAndAssertSuccess(copier);
+
+        FreeStyleProject failing = j.createFreeStyleProject();
+        failing.getBuildersList().add(CopyArtifactUtil.createCopyArtifact("copiee", null, new StatusBuildSelector(), "nosuchfile.txt", "", false, false, true));
+        j.assertBuildStatus(Result.FAILURE, failing.scheduleBuild2(0));
+
+        // copies failing to find the project are counted too.
+        FreeStyleProject missing = j.createFreeStyleProject();
+        missing.getBuildersList().add(CopyArtifactUtil.createCopyArtifact("nosuchproject", null, new StatusBuildSelector(), "artifact.txt", "", false, false, true));
+        j.assertBuildStatus(Result.FAILURE, missing.scheduleBuild2(0));
+
+        CopyArtifactMetrics metrics = CopyArtifactMetrics.get();
+        assertEquals(0, metrics.getActiveCopies());
+        assertEquals(1, metrics.getCompletedCopies());
+        assertEquals(2, metrics.getFailedCopies());
+        assertEquals(6, metrics.getTransferredBytes());
+        assertEquals(0, metrics.getFingerprintsInProgress());
+        assertThat(metrics.getBytesPerSecondByProject().keySet(), contains("copiee"));
+        long selections = 0;
+        for (long count : metrics.getSelectionLatencyHistogram().values()) {
+            selections += count;
+        }
+        assertEquals(2, selections);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(CopyArtifactMetrics.OBJECT_NAME);
+        assertTrue(server.isRegistered(name));
+        assertEquals(1L, server.getAttribute(name, "CompletedCopies"));
+        assertEquals(2L, server.getAttribute(name, "FailedCopies"));
+
+        // metrics follow renamed projects, and are dropped with deleted projects.
+        copiee.renameTo("renamed");
+        assertThat(metrics.getBytesPerSecondByProject().keySet(), contains("renamed"));
+        copiee.delete();
+        assertThat(metrics.getBytesPerSecondByProject().keySet(), empty());
+    }
+
+    @Test
+    public void testArtifactCache() throws Exception {
+        CopyArtifactConfiguration.get().setArtifactCacheSize(1024);
+        CopyArtifactConfiguration.get().setArtifactCacheMaxEntrySize(10);
+        FreeStyleProject copiee = j.createFreeStyleProject("copiee");
+        copiee.getBuildersList().add(new FileWriteBuilder("artifact.txt", "foobar"));
+        copiee.getBuildersList().add(new FileWriteBuilder("large.txt", "larger than 10 bytes"));
+        copiee.getPublishersList().add(new ArtifactArchiver("*.txt"));
+        j.buildAndAssertSuccess(copiee);
+
+        FreeStyleProject copier = j.createFreeStyleProject();
+        copier.setAssignedNode(j.createOnlineSlave());
+        copier.getBuildersList().add(CopyArtifactUtil.createCopyArtifact("copiee", null, new StatusBuildSelector(), "*.txt", "", false, false, true));
+        j.buildAndAssertSuccess(copier);
+        FreeStyleBuild b = j.buildAndAssertSuccess(copier);
+        assertEquals("foobar", b.getWorkspace().child("artifact.txt").readToString());
+        assertEquals("larger than 10 bytes", b.getWorkspace().child("large.txt").readToString());
+
+        CopyArtifactMetrics metrics = CopyArtifactMetrics.get();
+        assertEquals(1, metrics.getCacheHits());
+        assertEquals(1, metrics.getCacheMisses());
+        assertEquals(6, metrics.getCachedBytes());
+
+        CopyArtifactConfiguration.get().setArtifactCacheSize(0);
+        ArtifactCache.get().configurationChanged();
+        assertEquals(0, metrics.getCachedBytes());
+    }
+
+    @Test
+    public void testArtifactCacheConcurrentMisses() throws Exception {
+        CopyArtifactConfiguration.get().setArtifactCacheSize(1024);
+        FreeStyleProject copiee = j.createFreeStyleProject("copiee");
+        copiee.getBuildersList().add(new FileWriteBuilder("artifact.txt", "foobar"));
+        copiee.getPublishersList().add(new ArtifactArchiver("artifact.txt"));
+        FreeStyleBuild s = j.buildAndAssertSuccess(copiee);
+        VirtualFile artifact = s.getArtifactManager().root().child("artifact.txt");
+
+        CopyArtifactMetrics metrics = CopyArtifactMetrics.get();
+        long hits = metrics.getCacheHits();
+        long misses = metrics.getCacheMisses();
+        int threads = 8;
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < threads; ++i) {
+                results.add(executor.submit(() -> {
+                    barrier.await();
+                    try (InputStream in = ArtifactCache.get().open(s.getExternalizableId(), artifact)) {
+                        return IOUtils.toString(in, "UTF-8");
+                    }
+                }));
+            }
+            for (Future<String> result : results) {
+                assertEquals("foobar", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // concurrent misses share a single read.
+        assertEquals(1, metrics.getCacheMisses() - misses);
+        assertEquals(threads - 1, metrics.getCacheHits() - hits);
+    }
+
+    @Test
+    public void testJsonRequiresAdminister() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new MockAuthorizationStrategy()
+                .grant(Jenkins.ADMINISTER).everywhere().to("admin")
+                .grant(Jenkins.READ).everywhere().to("user"));
+
+        WebClient wc = j.createWebClient();
+        wc.login("admin");
+        assertThat(
+                wc.goTo("copyartifact-metrics/api/json", "application/json").getWebResponse().getContentAsString(),
+                containsString("\"completedCopies\":0")
+        );
+
+        wc = j.createWebClient();
+        wc.login("user");
+        try {
+            wc.goTo("copyartifact-metrics/api/json", "application/json");
+            fail("Non-administrators should not see metrics");
+        } catch (FailingHttpStatusCodeException e) {
+            assertEquals(403, e.getStatusCode());
+        }
+    }
+}
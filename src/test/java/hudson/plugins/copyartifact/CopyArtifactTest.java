@@ -26,6 +26,7 @@ package hudson.plugins.copyartifact;
 import hudson.FilePath;
 import hudson.Functions;
 import hudson.Launcher;
+import hudson.Util;
 import hudson.matrix.Axis;
 import hudson.matrix.AxisList;
 import hudson.matrix.Combination;
@@ -37,6 +38,7 @@ import hudson.maven.MavenModuleSet;
 import hudson.maven.MavenModuleSetBuild;
 import hudson.model.*;
 import hudson.model.Cause.UserCause;
+import hudson.model.queue.QueueTaskFuture;
 import hudson.plugins.copyartifact.testutils.CopyArtifactUtil;
 import hudson.plugins.copyartifact.testutils.FileWriteBuilder;
 import hudson.plugins.copyartifact.testutils.WrapperBuilder;
@@ -55,27 +57,50 @@ import hudson.tasks.Builder;
 import hudson.util.FormValidation;
 import hudson.util.VersionNumber;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
 import java.nio.charset.Charset;
+import java.security.MessageDigest;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 import jenkins.model.Jenkins;
 import jenkins.security.QueueItemAuthenticatorConfiguration;
+import jenkins.util.VirtualFile;
 
 import org.acegisecurity.context.SecurityContext;
 import org.acegisecurity.context.SecurityContextHolder;
 import org.acegisecurity.providers.UsernamePasswordAuthenticationToken;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.rules.TestName;
 import org.jvnet.hudson.test.ExtractResourceSCM;
 import org.jvnet.hudson.test.Issue;
@@ -120,6 +145,9 @@ public class CopyArtifactTest {
     @Rule
     public TestName name = new TestName();
 
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
     // Tests using slaves fails with Jenkins < 1.520 on Windows.
     // See https://wiki.jenkins-ci.org/display/JENKINS/Unit+Test+on+Windows
     private void purgeSlaves() {
@@ -313,6 +341,695 @@ public class CopyArtifactTest {
         assertNull(b.getAction(Fingerprinter.FingerprintAction.class));
     }
 
+    @Test
+    public void testCopyStatistics() throws Exception {
+        FreeStyleProject other = createArtifactProject(),
+                         p = createProject(other.getName(), null, "", "", false, false, false, true);
+        FreeStyleBuild s = rule.buildAndAssertSuccess(other);
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+
+        CopyStatisticsAction action = b.getAction(CopyStatisticsAction.class);
+        assertNotNull(action);
+        assertEquals(1, action.getRecords().size());
+        CopyStatisticsAction.Record record = action.getRecords().get(0);
+        assertEquals(other.getFullName(), record.getProjectName());
+        assertEquals(s.getNumber(), record.getBuildNumber());
+        assertEquals(1, record.getBuildsExamined());
+        assertEquals(3, record.getFiles());
+        assertEquals(0, record.getSkippedFiles());
+        assertEquals(0, record.getBytes());
+
+        // summary and REST API
+        WebClient wc = rule.createWebClient();
+        wc.goTo(b.getUrl());
+        assertThat(
+                wc.goTo(b.getUrl() + "api/xml?xpath=//record/files", "application/xml").getWebResponse().getContentAsString(),
+                containsString("<files>3</files>")
+        );
+    }
+
+    @Test
+    public void testExtractArchives() throws Exception {
+        FreeStyleProject other = rule.createFreeStyleProject();
+        other.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
+                FilePath ws = build.getWorkspace();
+                ws.child("dist/bin/run.sh").write("run", "UTF-8");
+                ws.child("dist/lib/a.jar").write("jar", "UTF-8");
+                try (OutputStream os = ws.child("dist.zip").write()) {
+                    ws.zip(os, "dist/**");
+                }
+                try (OutputStream os = FilePath.TarCompression.GZIP.compress(ws.child("dist.tar.gz").write())) {
+                    ws.tar(os, "dist/**");
+                }
+                return true;
+            }
+        });
+        other.getPublishersList().add(new ArtifactArchiver("dist.zip,dist.tar.gz"));
+        FreeStyleBuild s = rule.buildAndAssertSuccess(other);
+
+        FreeStyleProject p = rule.createFreeStyleProject();
+        CopyArtifact zip = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "dist.zip", "zip", false, false, true);
+        zip.setExtractArchives(true);
+        zip.setExtractFilter("dist/lib/");
+        p.getBuildersList().add(zip);
+        CopyArtifact tar = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "dist.tar.gz", "tar", false, false, true);
+        tar.setExtractArchives(true);
+        p.getBuildersList().add(tar);
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+
+        FilePath ws = b.getWorkspace();
+        assertFalse(ws.child("zip/dist.zip").exists());
+        assertEquals("jar", ws.child("zip/dist/lib/a.jar").readToString());
+        assertFalse(ws.child("zip/dist/bin/run.sh").exists());
+        assertFalse(ws.child("tar/dist.tar.gz").exists());
+        assertEquals("run", ws.child("tar/dist/bin/run.sh").readToString());
+        assertEquals("jar", ws.child("tar/dist/lib/a.jar").readToString());
+
+        // fingerprints are recorded for archives
+        Map<String, String> fingerprints = b.getAction(Fingerprinter.FingerprintAction.class).getRecords();
+        assertEquals(Util.getDigestOf(new File(s.getArtifactsDir(), "dist.zip")), fingerprints.get("dist.zip"));
+        assertEquals(Util.getDigestOf(new File(s.getArtifactsDir(), "dist.tar.gz")), fingerprints.get("dist.tar.gz"));
+    }
+
+    @Test
+    public void testPackAs() throws Exception {
+        FreeStyleProject other = createArtifactProject();
+        rule.buildAndAssertSuccess(other);
+
+        FreeStyleProject p = rule.createFreeStyleProject();
+        CopyArtifact zip = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "**/*.txt", "out", false, false, true);
+        zip.setPackAs("artifacts.zip");
+        p.getBuildersList().add(zip);
+        CopyArtifact tar = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "", "out", true, false, false);
+        tar.setExcludes("foo.txt");
+        tar.setPackAs("artifacts.tar.gz");
+        p.getBuildersList().add(tar);
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+
+        FilePath out = b.getWorkspace().child("out");
+        assertEquals(2, out.list().size());
+        Set<String> entries = new HashSet<>();
+        try (ZipInputStream is = new ZipInputStream(out.child("artifacts.zip").read())) {
+            for (ZipEntry e = is.getNextEntry(); e != null; e = is.getNextEntry()) {
+                entries.add(e.getName());
+            }
+        }
+        assertEquals(Sets.newHashSet("foo.txt", "subdir/subfoo.txt"), entries);
+        entries.clear();
+        try (TarArchiveInputStream is = new TarArchiveInputStream(FilePath.TarCompression.GZIP.extract(out.child("artifacts.tar.gz").read()))) {
+            for (TarArchiveEntry e = is.getNextTarEntry(); e != null; e = is.getNextTarEntry()) {
+                entries.add(e.getName());
+            }
+        }
+        // flattened
+        assertEquals(Sets.newHashSet("subfoo.txt", "c.log"), entries);
+        assertNotNull(b.getAction(Fingerprinter.FingerprintAction.class).getRecords().get("subfoo.txt"));
+    }
+
+    @Test
+    public void testDryRun() throws Exception {
+        FreeStyleProject other = createArtifactProject();
+        rule.buildAndAssertSuccess(other);
+
+        FreeStyleProject p = rule.createFreeStyleProject();
+        CopyArtifact copier = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "", "out", true, false, true);
+        copier.setDryRun(true);
+        p.getBuildersList().add(copier);
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+
+        assertFalse(b.getWorkspace().child("out").exists());
+        assertNull(b.getAction(Fingerprinter.FingerprintAction.class));
+        rule.assertLogContains(Messages.CopyArtifact_Planned(4, 0, other.getLastBuild().getFullDisplayName()), b);
+        rule.assertLogContains("subdir/subfoo.txt -> out" + File.separator + "subfoo.txt", b);
+    }
+
+    @Test
+    public void testTransferGovernor() throws Exception {
+        FreeStyleProject other = createArtifactProject();
+        rule.buildAndAssertSuccess(other);
+        FreeStyleProject p = createProject(other.getName(), null, "", "", false, false, false, true);
+
+        CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+        config.setMaxConcurrentCopies(1);
+        config.setMaxBytesPerSecond(1024);
+        config.setMaxBytesPerSecondPerProject(1024);
+        try (TransferGovernor.Permit permit = TransferGovernor.get().acquire("another", TaskListener.NULL)) {
+            QueueTaskFuture<FreeStyleBuild> f = p.scheduleBuild2(0);
+            FreeStyleBuild b = f.waitForStart();
+            rule.waitForMessage(Messages.TransferGovernor_WaitingForSlot(1, 1, 0), b);
+            assertFalse(b.getWorkspace().child("foo.txt").exists());
+            permit.close();
+            rule.assertBuildStatusSuccess(f);
+            assertFile(true, "foo.txt", b);
+        } finally {
+            config.setMaxConcurrentCopies(0);
+        }
+    }
+
+    @Test
+    public void testTransferLimitValidation() throws Exception {
+        CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+        assertEquals(FormValidation.Kind.OK, config.doCheckMaxConcurrentCopies("").kind);
+        assertEquals(FormValidation.Kind.OK, config.doCheckMaxConcurrentCopies("0").kind);
+        assertEquals(FormValidation.Kind.ERROR, config.doCheckMaxConcurrentCopies("-1").kind);
+        assertEquals(FormValidation.Kind.ERROR, config.doCheckMaxConcurrentCopiesPerProject("3000000000").kind);
+        assertEquals(FormValidation.Kind.OK, config.doCheckMaxBytesPerSecond("3000000000").kind);
+        assertEquals(FormValidation.Kind.ERROR, config.doCheckMaxBytesPerSecond("-1").kind);
+        assertEquals(FormValidation.Kind.ERROR, config.doCheckMaxBytesPerSecondPerProject("1MB").kind);
+    }
+
+    @Test
+    public void testSingleFlightCopy() throws Exception {
+        boolean enabled = SingleFlightCopy.ENABLED;
+        try {
+            SingleFlightCopy.ENABLED = false;
+            FreeStyleProject other = rule.createFreeStyleProject();
+            other.getBuildersList().add(new FileWriteBuilder("artifact.txt", "foobar"));
+            other.getPublishersList().add(new ArtifactArchiver("artifact.txt", "", false, false));
+            FreeStyleBuild src = rule.buildAndAssertSuccess(other);
+            VirtualFile s = src.getArtifactManager().root().child("artifact.txt");
+
+            DumbSlave node = rule.createOnlineSlave();
+            FilePath d1 = node.getRootPath().child("a/artifact.txt");
+            FilePath d2 = node.getRootPath().child("b/artifact.txt");
+            assertNull(SingleFlightCopy.begin(s, d1));
+
+            SingleFlightCopy.ENABLED = true;
+            SingleFlightCopy leader = SingleFlightCopy.begin(s, d1);
+            SingleFlightCopy follower = SingleFlightCopy.begin(s, d2);
+            assertTrue(leader.isLeader());
+            assertFalse(follower.isLeader());
+            try (InputStream is = s.open()) {
+                d1.copyFrom(is);
+            }
+            byte[] digest = Util.fromHexString(Util.getDigestOf("foobar"));
+            leader.land(d1, digest);
+            assertEquals(Util.getDigestOf("foobar"), Util.toHexString(follower.follow(d2)));
+            assertEquals("foobar", d2.readToString());
+
+            // a file modified after landed with the same size is not copied.
+            leader = SingleFlightCopy.begin(s, d1);
+            follower = SingleFlightCopy.begin(s, d2);
+            d1.write("barbaz", "UTF-8");
+            leader.land(d1, digest);
+            assertNull(follower.follow(d2));
+
+            // a failed leader makes followers copy by themselves.
+            leader = SingleFlightCopy.begin(s, d1);
+            follower = SingleFlightCopy.begin(s, d2);
+            leader.land(null, null);
+            assertNull(follower.follow(d2));
+            leader = SingleFlightCopy.begin(s, d2);
+            assertTrue(leader.isLeader());
+            leader.land(null, null);
+
+            // a stalled leader makes followers copy by themselves.
+            int timeout = SingleFlightCopy.FOLLOW_TIMEOUT;
+            SingleFlightCopy.FOLLOW_TIMEOUT = 1;
+            try {
+                leader = SingleFlightCopy.begin(s, d1);
+                follower = SingleFlightCopy.begin(s, d2);
+                assertNull(follower.follow(d2));
+                leader.land(null, null);
+            } finally {
+                SingleFlightCopy.FOLLOW_TIMEOUT = timeout;
+            }
+        } finally {
+            SingleFlightCopy.ENABLED = enabled;
+        }
+    }
+
+    @Test
+    public void testTransferGovernorSuspend() throws Exception {
+        CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+        config.setMaxConcurrentCopies(1);
+        try {
+            TransferGovernor.Permit permit = TransferGovernor.get().acquire("follower", TaskListener.NULL);
+            permit.suspend();
+            // the slot is available to other copies while suspended.
+            TransferGovernor.get().acquire("another", TaskListener.NULL).close();
+            permit.resume(TaskListener.NULL);
+            permit.close();
+
+            // a copy failed while suspended doesn't release the slot twice.
+            permit = TransferGovernor.get().acquire("follower", TaskListener.NULL);
+            permit.suspend();
+            permit.close();
+            try (TransferGovernor.Permit other = TransferGovernor.get().acquire("another", TaskListener.NULL)) {
+                Thread t = new Thread(() -> {
+                    try {
+                        TransferGovernor.get().acquire("third", TaskListener.NULL).close();
+                    } catch (InterruptedException x) {
+                        // expected
+                    }
+                });
+                t.start();
+                t.join(TimeUnit.SECONDS.toMillis(1));
+                assertTrue(t.isAlive());
+                t.interrupt();
+                t.join();
+            }
+        } finally {
+            config.setMaxConcurrentCopies(0);
+        }
+    }
+
+    @Test
+    public void testResumable() throws Exception {
+        FreeStyleProject other = createArtifactProject();
+        FreeStyleBuild src = rule.buildAndAssertSuccess(other);
+
+        FreeStyleProject p = rule.createFreeStyleProject();
+        CopyArtifact copier = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "**/*.txt", "out", false, false, true);
+        copier.setResumable(true);
+        p.getBuildersList().add(copier);
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+        FilePath out = b.getWorkspace().child("out");
+        assertTrue(out.child("foo.txt").exists());
+        assertFalse(out.child(CopyJournal.NAME).exists());
+
+        // simulate an interrupted copy: foo.txt is copied and subdir/subfoo.txt is not.
+        String digest = Util.getDigestOf(src.getArtifactManager().root().child("foo.txt").open());
+        long lastModified = out.child("foo.txt").lastModified();
+        out.child("subdir/subfoo.txt").delete();
+        out.child(CopyJournal.NAME).write(src.getExternalizableId() + "\tfoo.txt\t0\t" + digest + "\t" + lastModified + "\tfoo.txt\n"
+                + src.getExternalizableId() + "\t.hg/defaultexclude.txt\t0\t" + digest + "\t" + lastModified + "\tmissing.txt\n", "UTF-8");
+        b = rule.buildAndAssertSuccess(p);
+        rule.assertLogContains(Messages.CopyArtifact_Resumed(1), b);
+        assertTrue(out.child("subdir/subfoo.txt").exists());
+        assertTrue(out.child(".hg/defaultexclude.txt").exists());
+        assertFalse(out.child(CopyJournal.NAME).exists());
+        assertEquals(1, b.getAction(CopyStatisticsAction.class).getRecords().get(0).getSkippedFiles());
+
+        // a file modified after recorded is copied again even with the same size.
+        out.child("foo.txt").touch(lastModified + 10000);
+        out.child(CopyJournal.NAME).write(src.getExternalizableId() + "\tfoo.txt\t0\t" + digest + "\t" + lastModified + "\tfoo.txt\n", "UTF-8");
+        b = rule.buildAndAssertSuccess(p);
+        rule.assertLogNotContains(Messages.CopyArtifact_Resumed(1), b);
+        assertEquals(0, b.getAction(CopyStatisticsAction.class).getRecords().get(0).getSkippedFiles());
+
+        // so is a file not matching the recorded digest.
+        String wrong = Util.getDigestOf("x");
+        lastModified = out.child("foo.txt").lastModified();
+        out.child(CopyJournal.NAME).write(src.getExternalizableId() + "\tfoo.txt\t0\t" + wrong + "\t" + lastModified + "\tfoo.txt\n", "UTF-8");
+        b = rule.buildAndAssertSuccess(p);
+        rule.assertLogNotContains(Messages.CopyArtifact_Resumed(1), b);
+        assertEquals(0, b.getAction(CopyStatisticsAction.class).getRecords().get(0).getSkippedFiles());
+        assertEquals(digest, b.getAction(Fingerprinter.FingerprintAction.class).getRecords().get("foo.txt"));
+    }
+
+    @Test
+    public void testDeltaTransfer() throws Exception {
+        FreeStyleProject other = rule.createFreeStyleProject();
+        other.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
+                byte[] data = new byte[256 * 1024];
+                new Random(0).nextBytes(data);
+                // change only the third block.
+                Arrays.fill(data, 4096, 4196, (byte) build.getNumber());
+                try (OutputStream os = build.getWorkspace().child("data.bin").write()) {
+                    os.write(data);
+                }
+                return true;
+            }
+        });
+        other.getPublishersList().add(new ArtifactArchiver("data.bin"));
+        rule.buildAndAssertSuccess(other);
+
+        FreeStyleProject p = rule.createFreeStyleProject();
+        p.setAssignedNode(rule.createOnlineSlave());
+        CopyArtifact copier = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "", "", false, false, true);
+        copier.setDeltaTransfer(true);
+        p.getBuildersList().add(copier);
+
+        long minLength = DeltaTransfer.MIN_LENGTH;
+        DeltaTransfer.MIN_LENGTH = 0;
+        try {
+            FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+            rule.assertLogNotContains(Messages.CopyArtifact_Delta("data.bin", 0, 0).substring(0, 10), b);
+
+            FreeStyleBuild src = rule.buildAndAssertSuccess(other);
+            b = rule.buildAndAssertSuccess(p);
+            rule.assertLogContains(Messages.CopyArtifact_Delta("data.bin", 2048, 256 * 1024), b);
+            String digest = Util.getDigestOf(src.getArtifactManager().root().child("data.bin").open());
+            assertEquals(digest, Util.getDigestOf(b.getWorkspace().child("data.bin").read()));
+            assertEquals(digest, b.getAction(Fingerprinter.FingerprintAction.class).getRecords().get("data.bin"));
+        } finally {
+            DeltaTransfer.MIN_LENGTH = minLength;
+        }
+    }
+
+    @Test
+    public void testCompression() throws Exception {
+        FreeStyleProject other = rule.createFreeStyleProject();
+        other.getBuildersList().add(new TestBuilder() {
+            @Override
+            public boolean perform(AbstractBuild<?, ?> build, Launcher launcher, BuildListener listener) throws InterruptedException, IOException {
+                FilePath ws = build.getWorkspace();
+                ws.child("report.log").write(StringUtils.repeat("compressible line\n", 10000), "UTF-8");
+                ws.child("report.dat").write(StringUtils.repeat("compressible data\n", 10000), "UTF-8");
+                byte[] random = new byte[100000];
+                new Random(0).nextBytes(random);
+                try (OutputStream os = ws.child("random.dat").write()) {
+                    os.write(random);
+                }
+                return true;
+            }
+        });
+        other.getPublishersList().add(new ArtifactArchiver("*"));
+        FreeStyleBuild src = rule.buildAndAssertSuccess(other);
+
+        assertTrue(CompressedTransfer.isCompressible(StringUtils.repeat("abc", 1000).getBytes("UTF-8")));
+        byte[] random = new byte[1000];
+        new Random(0).nextBytes(random);
+        assertFalse(CompressedTransfer.isCompressible(random));
+
+        FreeStyleProject p = rule.createFreeStyleProject();
+        p.setAssignedNode(rule.createOnlineSlave());
+        CopyArtifact auto = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "", "auto", false, false, true);
+        auto.setCompression(TransferCompression.AUTO);
+        p.getBuildersList().add(auto);
+        CopyArtifact always = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "", "always", false, false, true);
+        always.setCompression(TransferCompression.ALWAYS);
+        p.getBuildersList().add(always);
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+
+        for (String name : Arrays.asList("report.log", "report.dat", "random.dat")) {
+            VirtualFile artifact = src.getArtifactManager().root().child(name);
+            String digest = Util.getDigestOf(artifact.open());
+            for (String dir : Arrays.asList("auto", "always")) {
+                FilePath f = b.getWorkspace().child(dir).child(name);
+                assertEquals(digest, Util.getDigestOf(f.read()));
+                assertEquals(artifact.lastModified() / 1000, f.lastModified() / 1000);
+            }
+            assertEquals(digest, b.getAction(Fingerprinter.FingerprintAction.class).getRecords().get(name));
+        }
+    }
+
+    @Test
+    public void testLocalTransfer() throws Exception {
+        File s = tmp.newFile();
+        byte[] data = new byte[1024 * 1024 + 1];
+        new Random(0).nextBytes(data);
+        FileUtils.writeByteArrayToFile(s, data);
+        File d = new File(tmp.getRoot(), "sub/dir/copied");
+        assertNull(LocalTransfer.copy(s, d, false, null));
+        assertArrayEquals(data, FileUtils.readFileToByteArray(d));
+        d.delete();
+        assertEquals(Util.getDigestOf(s), Util.toHexString(LocalTransfer.copy(s, d, true, null)));
+        assertArrayEquals(data, FileUtils.readFileToByteArray(d));
+    }
+
+    @Test
+    public void testPreStageArtifacts() throws Exception {
+        CopyArtifactConfiguration.get().setPreStageArtifacts(true);
+        DumbSlave agent = rule.createOnlineSlave(Label.get("stage"));
+        FreeStyleProject other = createArtifactProject();
+        other.getBuildersList().add(new FileWriteBuilder("foo.txt", "original"));
+        FreeStyleProject p = createProject(other.getName(), null, "", "", false, false, false, true);
+        p.setAssignedLabel(Label.get("stage"));
+        // staged only for projects allowed to copy regardless of the authentication
+        other.addProperty(new CopyArtifactPermissionProperty(p.getFullName()));
+        FreeStyleBuild s = rule.buildAndAssertSuccess(other);
+
+        String[] files = {"foo.txt", "subdir/subfoo.txt", "deepfoo/a/b/c.log"};
+        FilePath dir = AgentArtifactCache.getDirectory(agent.getRootPath(), other.getFullName(), s.getNumber());
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        for (String file : files) {
+            FilePath staged = dir.child(file);
+            long lastModified = s.getArtifactManager().root().child(file).lastModified();
+            while (!staged.exists() || staged.lastModified() / 1000 != lastModified / 1000) {
+                assertTrue("Timed out waiting for " + staged, System.currentTimeMillis() < timeout);
+                Thread.sleep(100);
+            }
+        }
+
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+        assertSame(agent, b.getBuiltOn());
+        rule.assertLogContains(Messages.CopyArtifact_PreStaged(3), b);
+        for (String file : files) {
+            assertFile(true, file, b);
+            String digest = Util.getDigestOf(s.getArtifactManager().root().child(file).open());
+            assertEquals(digest, b.getWorkspace().child(file).digest());
+            assertEquals(digest, b.getAction(Fingerprinter.FingerprintAction.class).getRecords().get(file.replaceFirst(".+/", "")));
+        }
+
+        // a staged file replaced by a build on the agent is not trusted even with the same size and timestamp.
+        FilePath staged = dir.child("foo.txt");
+        long lastModified = staged.lastModified();
+        staged.write("tampered", "UTF-8");
+        staged.touch(lastModified);
+        b = rule.buildAndAssertSuccess(p);
+        rule.assertLogContains(Messages.CopyArtifact_PreStaged(2), b);
+        assertEquals("original", b.getWorkspace().child("foo.txt").readToString());
+        assertEquals(Util.getDigestOf("original"), b.getAction(Fingerprinter.FingerprintAction.class).getRecords().get("foo.txt"));
+    }
+
+    @Test
+    public void testAgentArtifactCacheCleanup() throws Exception {
+        DumbSlave agent = rule.createOnlineSlave();
+        FilePath nodeRoot = agent.getRootPath();
+        FreeStyleProject first = createArtifactProject();
+        FreeStyleProject second = createArtifactProject();
+        VirtualFile firstArtifacts = rule.buildAndAssertSuccess(first).getArtifactManager().root();
+        VirtualFile secondArtifacts = rule.buildAndAssertSuccess(second).getArtifactManager().root();
+        Collection<String> entries = ArtifactLister.list(firstArtifacts, "**", null);
+        long size = 0;
+        for (String entry : entries) {
+            size += firstArtifacts.child(entry).length();
+        }
+        FilePath firstDir = AgentArtifactCache.getDirectory(nodeRoot, first.getFullName(), 1);
+        FilePath secondDir = AgentArtifactCache.getDirectory(nodeRoot, second.getFullName(), 1);
+
+        long maxSize = AgentArtifactCache.MAX_SIZE;
+        try {
+            // only one of the builds fits.
+            AgentArtifactCache.MAX_SIZE = size * 2 - 1;
+            assertEquals(entries.size(), AgentArtifactCache.stage(nodeRoot, first.getFullName(), 1, firstArtifacts, entries));
+            assertTrue(firstDir.exists());
+            assertEquals(entries.size(), AgentArtifactCache.stage(nodeRoot, second.getFullName(), 1, secondArtifacts, entries));
+            assertFalse(firstDir.exists());
+            assertTrue(secondDir.exists());
+
+            // a build larger than the limit is not staged.
+            AgentArtifactCache.MAX_SIZE = size - 1;
+            assertEquals(0, AgentArtifactCache.stage(nodeRoot, first.getFullName(), 1, firstArtifacts, entries));
+            assertFalse(firstDir.exists());
+        } finally {
+            AgentArtifactCache.MAX_SIZE = maxSize;
+        }
+
+        // staged artifacts of deleted jobs are removed.
+        second.delete();
+        long timeout = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+        while (secondDir.getParent().exists()) {
+            assertTrue("Timed out waiting for removing " + secondDir, System.currentTimeMillis() < timeout);
+            Thread.sleep(100);
+        }
+    }
+
+    @Test
+    public void testChecksumManifest() throws Exception {
+        FreeStyleProject other = createArtifactProject();
+        FreeStyleBuild s = rule.buildAndAssertSuccess(other);
+        FreeStyleProject p = rule.createFreeStyleProject();
+        p.setAssignedNode(rule.createSlave());
+        CopyArtifact sha = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "", "sha", false, false, true);
+        sha.setChecksum(ChecksumAlgorithm.SHA256);
+        p.getBuildersList().add(sha);
+        CopyArtifact crc = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "", "crc", false, false, false);
+        crc.setChecksum(ChecksumAlgorithm.CRC32);
+        crc.setCompression(TransferCompression.ALWAYS);
+        p.getBuildersList().add(crc);
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+        rule.assertLogContains(Messages.CopyArtifact_Checksums(3, "SHA256SUMS"), b);
+
+        StringBuilder sha256 = new StringBuilder();
+        StringBuilder crc32 = new StringBuilder();
+        for (String file : new String[] {"deepfoo/a/b/c.log", "foo.txt", "subdir/subfoo.txt"}) {
+            byte[] data = IOUtils.toByteArray(s.getArtifactManager().root().child(file).open());
+            sha256.append(Util.toHexString(MessageDigest.getInstance("SHA-256").digest(data))).append("  ").append(file).append('\n');
+            CRC32 c = new CRC32();
+            c.update(data);
+            crc32.append(String.format("%08x", c.getValue())).append("  ").append(file).append('\n');
+        }
+        assertEquals(sha256.toString(), b.getWorkspace().child("sha/SHA256SUMS").readToString());
+        assertEquals(crc32.toString(), b.getWorkspace().child("crc/CRC32SUMS").readToString());
+
+        // copied on the controller, and merged with the existing manifest.
+        FreeStyleProject local = rule.createFreeStyleProject();
+        CopyArtifact c1 = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "foo.txt", "", false, false, true);
+        c1.setChecksum(ChecksumAlgorithm.SHA256);
+        local.getBuildersList().add(c1);
+        CopyArtifact c2 = CopyArtifactUtil.createCopyArtifact(other.getName(), null, new StatusBuildSelector(), "subdir/*, deepfoo/**", "", false, false, true);
+        c2.setChecksum(ChecksumAlgorithm.SHA256);
+        local.getBuildersList().add(c2);
+        b = rule.buildAndAssertSuccess(local);
+        assertEquals(sha256.toString(), b.getWorkspace().child("SHA256SUMS").readToString());
+    }
+
+    @Test
+    public void testTransferContext() throws Exception {
+        byte[] data = new byte[100000];
+        new Random(0).nextBytes(data);
+        int chunkSize = TransferContext.CHUNK_SIZE;
+        try {
+            TransferContext.CHUNK_SIZE = 1000;
+            TransferContext context = TransferContext.get();
+            assertSame(context, TransferContext.get());
+            for (int i = 0; i < 2; ++i) {
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                MessageDigest md5 = context.md5();
+                assertEquals(data.length, context.copy(new ByteArrayInputStream(data), os, md5));
+                assertArrayEquals(data, os.toByteArray());
+                assertEquals(Util.getDigestOf(new ByteArrayInputStream(data)), Util.toHexString(md5.digest()));
+            }
+            assertSame(context.buffer(), context.buffer());
+            assertEquals(1000, context.buffer().length);
+            TransferContext.CHUNK_SIZE = 2000;
+            assertEquals(2000, context.buffer().length);
+            assertEquals(2000, context.directBuffer().remaining());
+        } finally {
+            TransferContext.CHUNK_SIZE = chunkSize;
+        }
+    }
+
+    @Test
+    public void testPipelinedDigest() throws Exception {
+        byte[] data = new byte[100001];
+        new Random(0).nextBytes(data);
+        String digest = Util.getDigestOf(new ByteArrayInputStream(data));
+        int chunkSize = TransferContext.CHUNK_SIZE;
+        try {
+            TransferContext.CHUNK_SIZE = 1000;
+            for (int i = 0; i < 2; ++i) {
+                ByteArrayOutputStream os = new ByteArrayOutputStream();
+                MessageDigest md5 = TransferContext.get().md5();
+                assertEquals(data.length, PipelinedDigest.copy(new ByteArrayInputStream(data), os, md5));
+                assertArrayEquals(data, os.toByteArray());
+                assertEquals(digest, Util.toHexString(md5.digest()));
+            }
+
+            // a failed copy doesn't leave the hashing thread using the digest of the next copy.
+            InputStream failing = new SequenceInputStream(new ByteArrayInputStream(data), new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    throw new IOException("failed");
+                }
+            });
+            try {
+                PipelinedDigest.copy(failing, new ByteArrayOutputStream(), TransferContext.get().md5());
+                fail();
+            } catch (IOException x) {
+                assertEquals("failed", x.getMessage());
+            }
+            MessageDigest md5 = TransferContext.get().md5();
+            PipelinedDigest.copy(new ByteArrayInputStream(data), new ByteArrayOutputStream(), md5);
+            assertEquals(digest, Util.toHexString(md5.digest()));
+        } finally {
+            TransferContext.CHUNK_SIZE = chunkSize;
+        }
+
+        boolean enabled = PipelinedDigest.ENABLED;
+        try {
+            PipelinedDigest.ENABLED = true;
+            FreeStyleProject other = createArtifactProject();
+            FreeStyleBuild s = rule.buildAndAssertSuccess(other);
+            FreeStyleProject p = createProject(other.getName(), null, "", "", false, false, false, true);
+            p.setAssignedNode(rule.createSlave());
+            FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+            for (String file : new String[] {"foo.txt", "subdir/subfoo.txt", "deepfoo/a/b/c.log"}) {
+                assertFile(true, file, b);
+                String expected = Util.getDigestOf(s.getArtifactManager().root().child(file).open());
+                assertEquals(expected, b.getWorkspace().child(file).digest());
+                assertEquals(expected, b.getAction(Fingerprinter.FingerprintAction.class).getRecords().get(file.replaceFirst(".+/", "")));
+            }
+        } finally {
+            PipelinedDigest.ENABLED = enabled;
+        }
+    }
+
+    @Test
+    public void testPipelinedDigestFailuresWhileQueued() throws Exception {
+        // keep every hashing thread busy, so that digests of the failing copies are still queued.
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch reading = new CountDownLatch(PipelinedDigest.POOL_SIZE);
+        ExecutorService copiers = Executors.newCachedThreadPool();
+        try {
+            List<Future<?>> blocked = new ArrayList<>();
+            for (int i = 0; i < PipelinedDigest.POOL_SIZE; ++i) {
+                blocked.add(copiers.submit(() -> copyFailing(new SequenceInputStream(new ByteArrayInputStream(new byte[10]), new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        reading.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException x) {
+                            throw new IOException(x);
+                        }
+                        throw new IOException("failed");
+                    }
+                }))));
+            }
+            assertTrue(reading.await(30, TimeUnit.SECONDS));
+            List<Future<?>> failing = new ArrayList<>();
+            for (int i = 0; i < PipelinedDigest.POOL_SIZE * 2; ++i) {
+                failing.add(copiers.submit(() -> copyFailing(new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("failed");
+                    }
+                })));
+            }
+            for (Future<?> f : failing) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+            release.countDown();
+            for (Future<?> f : blocked) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            release.countDown();
+            copiers.shutdownNow();
+        }
+    }
+
+    private static Void copyFailing(InputStream in) throws Exception {
+        try {
+            PipelinedDigest.copy(in, new ByteArrayOutputStream(), TransferContext.get().md5());
+            fail();
+        } catch (IOException x) {
+            assertEquals("failed", x.getMessage());
+        }
+        return null;
+    }
+
+    @Test
+    public void testArtifactLister() throws Exception {
+        File root = tmp.newFolder();
+        for (String path : Arrays.asList("foo.txt", "target/dist/a.jar", "target/dist/sub/b.jar", "target/dist/c.txt",
+                "target/classes/d.class", "other/dist/e.jar", "dir/file")) {
+            FileUtils.writeStringToFile(new File(root, path), path, "UTF-8");
+        }
+        VirtualFile vf = VirtualFile.forFile(root);
+        String[][] patterns = {
+            {"target/dist/**/*.jar", null},
+            {"foo.txt, target/dist/c.txt", null},
+            {"foo.txt target/classes/", null},
+            {"target/**, other/*/e.jar", "**/sub/**, **/*.class"},
+            {"target/dist/?.jar", null},
+            {"bogus/**, missing.txt, dir", null},
+            {"**/*.jar", "target/**"},
+        };
+        for (String[] p : patterns) {
+            assertEquals(p[0], new HashSet<>(vf.list(p[0], p[1], false)), new HashSet<>(ArtifactLister.list(vf, p[0], p[1])));
+        }
+        assertEquals(Collections.singleton("foo.txt"), new HashSet<>(ArtifactLister.list(vf, "foo.txt", null)));
+    }
+
     @Test
     public void testCopyWithFilter() throws Exception {
         FreeStyleProject other = createArtifactProject(),
@@ -459,6 +1176,63 @@ public class CopyArtifactTest {
         assertFile(true, "ARCH=x86/target/x86.out", b);
     }
 
+    /** Test copying artifacts from configurations of a matrix job selected with an axis filter */
+    @Test
+    public void testMatrixAxisFilter() throws Exception {
+        MatrixProject mp = createMatrixProject();
+        mp.setAxes(new AxisList(new Axis("ARCH", "sparc", "x86", "x86_64"), new Axis("OS", "linux", "solaris")));
+        mp.getBuildersList().add(new ArchMatrixBuilder());
+        mp.getPublishersList().add(new ArtifactArchiver("target/*", "", false, false));
+        rule.assertBuildStatusSuccess(mp.scheduleBuild2(0, new UserCause()).get());
+
+        FreeStyleProject p = rule.createFreeStyleProject();
+        CopyArtifact ca = CopyArtifactUtil.createCopyArtifact(mp.getName(), null, new StatusBuildSelector(true), "", "", false, false, true);
+        ca.setAxisFilter("ARCH=x86*,OS=linux");
+        p.getBuildersList().add(ca);
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+        rule.assertLogContains(Messages.CopyArtifact_MatchingConfigurations(2, 6, "ARCH=x86*,OS=linux"), b);
+        assertFile(true, "ARCH=x86,OS=linux/target/x86.out", b);
+        assertFile(true, "ARCH=x86_64,OS=linux/target/x86_64.out", b);
+        assertFile(false, "ARCH=x86,OS=solaris", b);
+        assertFile(false, "ARCH=sparc,OS=linux", b);
+
+        // values of the same axis are alternatives
+        p = rule.createFreeStyleProject();
+        ca = CopyArtifactUtil.createCopyArtifact(mp.getName(), null, new StatusBuildSelector(true), "", "", false, false, true);
+        ca.setAxisFilter("ARCH=sparc, ARCH=x86, OS=sol*");
+        p.getBuildersList().add(ca);
+        b = rule.buildAndAssertSuccess(p);
+        assertFile(true, "ARCH=sparc,OS=solaris/target/sparc.out", b);
+        assertFile(true, "ARCH=x86,OS=solaris/target/x86.out", b);
+        assertFile(false, "ARCH=x86_64,OS=solaris", b);
+        assertFile(false, "ARCH=sparc,OS=linux", b);
+
+        // no configuration matches
+        p = rule.createFreeStyleProject();
+        ca = CopyArtifactUtil.createCopyArtifact(mp.getName(), null, new StatusBuildSelector(true), "", "", false, false, true);
+        ca.setAxisFilter("ARCH=arm");
+        p.getBuildersList().add(ca);
+        b = rule.assertBuildStatus(Result.FAILURE, p.scheduleBuild2(0).get());
+        rule.assertLogContains(Messages.CopyArtifact_MatchingConfigurations(0, 6, "ARCH=arm"), b);
+        rule.assertLogContains(Messages.CopyArtifact_NoMatchingConfiguration("ARCH=arm", "{ARCH=[sparc, x86, x86_64], OS=[linux, solaris]}"), b);
+
+        // an optional copy doesn't fail for no matching configuration
+        p = rule.createFreeStyleProject();
+        ca = CopyArtifactUtil.createCopyArtifact(mp.getName(), null, new StatusBuildSelector(true), "", "", false, true, true);
+        ca.setAxisFilter("ARCH=arm");
+        p.getBuildersList().add(ca);
+        b = rule.buildAndAssertSuccess(p);
+        rule.assertLogContains(Messages.CopyArtifact_NoMatchingConfiguration("ARCH=arm", "{ARCH=[sparc, x86, x86_64], OS=[linux, solaris]}"), b);
+
+        // malformed
+        p = rule.createFreeStyleProject();
+        ca = CopyArtifactUtil.createCopyArtifact(mp.getName(), null, new StatusBuildSelector(true), "", "", false, false, true);
+        ca.setAxisFilter("x86");
+        p.getBuildersList().add(ca);
+        b = rule.assertBuildStatus(Result.FAILURE, p.scheduleBuild2(0).get());
+        rule.assertLogContains(Messages.CopyArtifact_InvalidAxisFilter("x86"), b);
+    }
+
     private MavenModuleSet setupMavenJob() throws Exception {
         ToolInstallations.configureDefaultMaven();
         MavenModuleSet mp = createMavenProject();
@@ -513,6 +1287,22 @@ public class CopyArtifactTest {
         assertFile(false, dir + pomName("moduleC", "1.0-SNAPSHOT"), b);
     }
 
+    /** Test copying from modules of a maven job selected with a module filter */
+    @Test
+    public void testMavenModuleFilter() throws Exception {
+        MavenModuleSet mp = setupMavenJob();
+        rule.assertBuildStatusSuccess(mp.scheduleBuild2(0, new UserCause()).get());
+        FreeStyleProject p = rule.createFreeStyleProject();
+        CopyArtifact ca = CopyArtifactUtil.createCopyArtifact(mp.getName(), null, new StatusBuildSelector(true), "", "", false, false, true);
+        ca.setModuleFilter("moduleA, org.jvnet.hudson.main.test.multimod:*C");
+        p.getBuildersList().add(ca);
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+        String dir = "org.jvnet.hudson.main.test.multimod/";
+        assertFile(true, dir + "moduleA/1.0-SNAPSHOT/moduleA-1.0-SNAPSHOT.jar", b);
+        assertFile(false, dir + "moduleB", b);
+        assertFile(true, dir + "moduleC/1.0-SNAPSHOT/moduleC-1.0-SNAPSHOT.jar", b);
+    }
+
     /** Test copying from maven job where artifacts manually archived instead of automatic */
     @Test
     public void testMavenJobWithArchivePostBuildStep() throws Exception {
@@ -1816,6 +2606,55 @@ public class CopyArtifactTest {
         }
     }
 
+    @Test
+    public void testLastModifiedOnSlave() throws Exception {
+        FreeStyleProject copiee = rule.createFreeStyleProject();
+        FreeStyleBuild copieeBuild = rule.buildAndAssertSuccess(copiee);
+        FilePath artifactDir = new FilePath(copieeBuild.getArtifactsDir());
+        artifactDir.child("artifact.txt").write("some content", Charset.defaultCharset().name());
+        artifactDir.child("artifact.txt").touch(1000000000000L);
+        artifactDir.child("subdir/artifactInSubdir.txt").write("some content", Charset.defaultCharset().name());
+        artifactDir.child("subdir/artifactInSubdir.txt").touch(1200000000000L);
+        boolean posix = !Functions.isWindows();
+        if (posix) {
+            artifactDir.child("artifact.txt").chmod(0751);
+            artifactDir.child("subdir/artifactInSubdir.txt").chmod(0600);
+            artifactDir.child("subdir/link").symlinkTo("artifactInSubdir.txt", TaskListener.NULL);
+        }
+
+        DumbSlave node = rule.createOnlineSlave();
+        for (boolean disableBatching : new boolean[] {false, true}) {
+            CopyArtifact.DISABLE_METADATA_BATCHING = disableBatching;
+            try {
+                FreeStyleProject p = rule.createFreeStyleProject();
+                p.setAssignedNode(node);
+                p.getBuildersList().add(CopyArtifactUtil.createCopyArtifact(
+                        copiee.getFullName(),
+                        "",
+                        new SpecificBuildSelector(Integer.toString(copieeBuild.getNumber())),
+                        "",
+                        "",
+                        "",
+                        false,
+                        false,
+                        false
+                ));
+                FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+                FilePath w = b.getWorkspace();
+                assertEquals(1000000000000L, w.child("artifact.txt").lastModified());
+                assertEquals(1200000000000L, w.child("subdir/artifactInSubdir.txt").lastModified());
+                if (posix) {
+                    // the same attributes whether applied at once or file by file.
+                    assertEquals(0751, w.child("artifact.txt").mode() & 0777);
+                    assertEquals(0600, w.child("subdir/artifactInSubdir.txt").mode() & 0777);
+                    assertEquals("artifactInSubdir.txt", w.child("subdir/link").readLink());
+                }
+            } finally {
+                CopyArtifact.DISABLE_METADATA_BATCHING = false;
+            }
+        }
+    }
+
     @Issue("JENKINS-20546")
     @Test
     public void testSymlinks() throws Exception {
@@ -2128,6 +2967,29 @@ public class CopyArtifactTest {
         assertFile(true, "deepfoo/a/b/c.log", b);
     }
 
+    @Test
+    public void compressArtifactsFingerprinted() throws Exception {
+        ArtifactManagerConfiguration.get().getArtifactManagerFactories().add(new CompressingArtifactManagerFactory());
+        FreeStyleProject other = createArtifactProject();
+        FreeStyleBuild s = rule.buildAndAssertSuccess(other);
+        FreeStyleProject p = createProject(other.getName(), null, "", "", false, false, false, true);
+        p.setAssignedNode(rule.createSlave());
+        FreeStyleBuild b = rule.buildAndAssertSuccess(p);
+        for (String file : new String[] {"foo.txt", "subdir/subfoo.txt", "deepfoo/a/b/c.log"}) {
+            assertFile(true, file, b);
+            assertEquals(Util.getDigestOf(s.getArtifactManager().root().child(file).open()), b.getWorkspace().child(file).digest());
+        }
+        File archive = ZipArtifacts.getArchive(s, s.getArtifactManager().root());
+        assertNotNull(archive);
+        List<String> read = new ArrayList<>();
+        try (ZipArtifacts zip = new ZipArtifacts(archive)) {
+            Collection<String> remaining = zip.read(Arrays.asList("foo.txt", "deepfoo/a/b/c.log", "bogus"), (entry, in) -> read.add(entry));
+            assertEquals(Collections.singleton("bogus"), new HashSet<>(remaining));
+        }
+        assertEquals(new HashSet<>(Arrays.asList("foo.txt", "deepfoo/a/b/c.log")), new HashSet<>(read));
+        assertNull(ZipArtifacts.getArchive(s, s.getArtifactManager().root().child("subdir")));
+    }
+
     @Issue("JENKINS-49635")
     @Test
     public void directDownload() throws Exception {
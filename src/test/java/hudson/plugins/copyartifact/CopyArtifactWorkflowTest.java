@@ -28,14 +28,17 @@ import hudson.model.FreeStyleBuild;
 import hudson.model.FreeStyleProject;
 import hudson.model.ParametersAction;
 import hudson.model.ParametersDefinitionProperty;
+import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.StringParameterDefinition;
 import hudson.model.StringParameterValue;
+import hudson.model.TaskListener;
 import hudson.model.Cause.UserCause;
 import hudson.plugins.copyartifact.testutils.CopyArtifactJenkinsRule;
 import hudson.plugins.copyartifact.testutils.CopyArtifactUtil;
 import hudson.plugins.copyartifact.testutils.FileWriteBuilder;
 import hudson.tasks.ArtifactArchiver;
+import hudson.tasks.Fingerprinter;
 
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
 import org.jenkinsci.plugins.workflow.job.WorkflowJob;
@@ -338,4 +341,246 @@ public class CopyArtifactWorkflowTest {
         );
         jenkinsRule.assertLogContains("foobar", jenkinsRule.assertBuildStatusSuccess(copier.scheduleBuild2(0)));
     }
+
+    @Test
+    public void testCopyArtifactsAsync() throws Exception {
+        WorkflowJob copiee = jenkinsRule.createWorkflow(
+            "copiee",
+            "writeFile text: 'foobar', file: 'artifact.txt';"
+            + "archive includes: 'artifact.txt';"
+        );
+        jenkinsRule.assertBuildStatusSuccess(copiee.scheduleBuild2(0));
+
+        WorkflowJob copier = jenkinsRule.createWorkflow(
+            "copier",
+            "parallel("
+            + "a: { dir('a') { copyArtifactsAsync(projectName: 'copiee', selector: lastSuccessful()); echo 'a:' + readFile('artifact.txt'); } },"
+            + "b: { dir('b') { copyArtifactsAsync(projectName: 'copiee', filter: 'artifact.txt', flatten: true); echo 'b:' + readFile('artifact.txt'); } }"
+            + ");"
+        );
+        WorkflowRun b = jenkinsRule.assertBuildStatusSuccess(copier.scheduleBuild2(0));
+        jenkinsRule.assertLogContains("a:foobar", b);
+        jenkinsRule.assertLogContains("b:foobar", b);
+    }
+
+    @Test
+    public void testCopyArtifactsAsyncDryRun() throws Exception {
+        WorkflowJob copiee = jenkinsRule.createWorkflow(
+            "copiee",
+            "writeFile text: 'foo', file: 'a/artifact.txt';"
+            + "writeFile text: 'foobar', file: 'b/artifact.txt';"
+            + "archive includes: '**/artifact.txt';"
+        );
+        jenkinsRule.assertBuildStatusSuccess(copiee.scheduleBuild2(0));
+
+        WorkflowJob copier = jenkinsRule.createWorkflow(
+            "copier",
+            "def plan = copyArtifactsAsync(projectName: 'copiee', flatten: true, dryRun: true);"
+            + "echo \"count=${plan.count} bytes=${plan.bytes} collisions=${plan.collisions}\";"
+            + "if (fileExists('artifact.txt')) { error 'copied' };"
+        );
+        WorkflowRun b = jenkinsRule.assertBuildStatusSuccess(copier.scheduleBuild2(0));
+        jenkinsRule.assertLogContains("count=2 bytes=9 collisions=[artifact.txt]", b);
+    }
+
+    @Test
+    public void testCopyArtifactsAsyncFailure() throws Exception {
+        WorkflowJob copier = jenkinsRule.createWorkflow(
+            "copier",
+            "copyArtifactsAsync(projectName: 'nosuchproject');"
+        );
+        WorkflowRun b = jenkinsRule.assertBuildStatus(Result.FAILURE, copier.scheduleBuild2(0));
+        jenkinsRule.assertLogContains(Messages.CopyArtifact_MissingProject("nosuchproject").split("\\n")[0], b);
+    }
+
+    @Test
+    public void testCopyArtifactsAsyncStop() throws Exception {
+        WorkflowJob copiee = jenkinsRule.createWorkflow(
+            "copiee",
+            "writeFile text: 'foobar', file: 'artifact.txt';"
+            + "archive includes: 'artifact.txt';"
+        );
+        jenkinsRule.assertBuildStatusSuccess(copiee.scheduleBuild2(0));
+
+        CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+        config.setMaxConcurrentCopies(1);
+        try (TransferGovernor.Permit permit = TransferGovernor.get().acquire("another", TaskListener.NULL)) {
+            WorkflowJob copier = jenkinsRule.createWorkflow(
+                "copier",
+                "copyArtifactsAsync(projectName: 'copiee');"
+            );
+            WorkflowRun b = copier.scheduleBuild2(0).waitForStart();
+            jenkinsRule.waitForMessage(Messages.TransferGovernor_WaitingForSlot(1, 1, 0), b);
+            b.doStop();
+            jenkinsRule.assertBuildStatus(Result.ABORTED, jenkinsRule.waitForCompletion(b));
+            assertFalse(jenkinsRule.jenkins.getWorkspaceFor(copier).child("artifact.txt").exists());
+        } finally {
+            config.setMaxConcurrentCopies(0);
+        }
+    }
+
+    @Test
+    public void testWaitForCopyArtifactsStop() throws Exception {
+        WorkflowJob copiee = jenkinsRule.createWorkflow(
+            "copiee",
+            "writeFile text: 'foobar', file: 'artifact.txt';"
+            + "archive includes: 'artifact.txt';"
+        );
+        jenkinsRule.assertBuildStatusSuccess(copiee.scheduleBuild2(0));
+
+        CopyArtifactConfiguration config = CopyArtifactConfiguration.get();
+        config.setMaxConcurrentCopies(1);
+        try (TransferGovernor.Permit permit = TransferGovernor.get().acquire("another", TaskListener.NULL)) {
+            WorkflowJob copier = jenkinsRule.createWorkflow(
+                "copier",
+                "def copy = copyArtifactsAsync(projectName: 'copiee', wait: false);"
+                + "echo 'started';"
+                + "waitForCopyArtifacts(copy);"
+            );
+            WorkflowRun b = copier.scheduleBuild2(0).waitForStart();
+            jenkinsRule.waitForMessage(Messages.TransferGovernor_WaitingForSlot(1, 1, 0), b);
+            jenkinsRule.waitForMessage("started", b);
+            b.doStop();
+            jenkinsRule.assertBuildStatus(Result.ABORTED, jenkinsRule.waitForCompletion(b));
+        } finally {
+            config.setMaxConcurrentCopies(0);
+        }
+    }
+
+    @Test
+    public void testCopyArtifactsFromAll() throws Exception {
+        for (String name : new String[] {"copiee1", "copiee2"}) {
+            WorkflowJob copiee = jenkinsRule.createWorkflow(
+                name,
+                "writeFile text: '" + name + "', file: 'artifact.txt';"
+                + "archive includes: 'artifact.txt';"
+            );
+            jenkinsRule.assertBuildStatusSuccess(copiee.scheduleBuild2(0));
+        }
+        jenkinsRule.createWorkflow("nobuild", "echo 'never run'");
+
+        WorkflowJob copier = jenkinsRule.createWorkflow(
+            "copier",
+            "copyArtifactsFromAll(sources: ["
+            + "[projectName: 'copiee1', target: 'a', fingerprintArtifacts: true],"
+            + "[projectName: 'copiee2', selector: lastSuccessful(), target: 'b', fingerprintArtifacts: true],"
+            + "[projectName: 'nobuild', optional: true],"
+            + "]);"
+            + "echo readFile('a/artifact.txt') + ':' + readFile('b/artifact.txt');"
+        );
+        WorkflowRun b = jenkinsRule.assertBuildStatusSuccess(copier.scheduleBuild2(0));
+        jenkinsRule.assertLogContains("copiee1:copiee2", b);
+        assertEquals(3, b.getAction(CopyStatisticsAction.class).getRecords().size());
+        assertNotNull(b.getAction(Fingerprinter.FingerprintAction.class));
+    }
+
+    @Test
+    public void testCopyArtifactsFromAllFailure() throws Exception {
+        WorkflowJob copiee = jenkinsRule.createWorkflow(
+            "copiee",
+            "writeFile text: 'foobar', file: 'artifact.txt';"
+            + "archive includes: 'artifact.txt';"
+        );
+        jenkinsRule.assertBuildStatusSuccess(copiee.scheduleBuild2(0));
+        jenkinsRule.createWorkflow("nobuild", "echo 'never run'");
+
+        WorkflowJob copier = jenkinsRule.createWorkflow(
+            "copier",
+            "try {"
+            + "copyArtifactsFromAll(sources: ["
+            + "[projectName: 'copiee'],"
+            + "[projectName: 'nobuild'],"
+            + "]);"
+            + "} finally {"
+            + "echo \"copied=${fileExists('artifact.txt')}\";"
+            + "}"
+        );
+        WorkflowRun b = jenkinsRule.assertBuildStatus(Result.FAILURE, copier.scheduleBuild2(0));
+        jenkinsRule.assertLogContains(Messages.CopyArtifact_MissingBuild("nobuild"), b);
+        // nothing is copied if any source fails.
+        jenkinsRule.assertLogContains("copied=false", b);
+    }
+
+    @Test
+    public void testCopyArtifactsFromAllDryRun() throws Exception {
+        for (String name : new String[] {"copiee1", "copiee2"}) {
+            WorkflowJob copiee = jenkinsRule.createWorkflow(
+                name,
+                "writeFile text: '" + name + "', file: 'artifact.txt';"
+                + "archive includes: 'artifact.txt';"
+            );
+            jenkinsRule.assertBuildStatusSuccess(copiee.scheduleBuild2(0));
+        }
+
+        WorkflowJob copier = jenkinsRule.createWorkflow(
+            "copier",
+            "def plans = copyArtifactsFromAll(sources: ["
+            + "[projectName: 'copiee1', target: 'a'],"
+            + "[projectName: 'copiee2', target: 'b', dryRun: true],"
+            + "]);"
+            + "echo \"plans=${plans.size()} project=${plans[0].project} count=${plans[0].count} bytes=${plans[0].bytes}\";"
+            + "echo \"a=${fileExists('a/artifact.txt')} b=${fileExists('b/artifact.txt')}\";"
+        );
+        WorkflowRun b = jenkinsRule.assertBuildStatusSuccess(copier.scheduleBuild2(0));
+        jenkinsRule.assertLogContains("plans=1 project=copiee2 count=1 bytes=7", b);
+        jenkinsRule.assertLogContains("a=true b=false", b);
+    }
+
+    @Test
+    public void testCopyArtifactsAsyncWithoutWait() throws Exception {
+        WorkflowJob copiee = jenkinsRule.createWorkflow(
+            "copiee",
+            "writeFile text: 'foobar', file: 'artifact.txt';"
+            + "archive includes: 'artifact.txt';"
+        );
+        jenkinsRule.assertBuildStatusSuccess(copiee.scheduleBuild2(0));
+
+        WorkflowJob copier = jenkinsRule.createWorkflow(
+            "copier",
+            "def copy = copyArtifactsAsync(projectName: 'copiee', wait: false);"
+            + "echo 'started';"
+            + "waitForCopyArtifacts(copy);"
+            + "echo readFile('artifact.txt');"
+        );
+        WorkflowRun b = jenkinsRule.assertBuildStatusSuccess(copier.scheduleBuild2(0));
+        jenkinsRule.assertLogContains("started", b);
+        jenkinsRule.assertLogContains("foobar", b);
+    }
+
+    @Test
+    public void testCopyArtifactsAsyncWithoutWaitFailure() throws Exception {
+        jenkinsRule.createWorkflow("nobuild", "echo 'never run'");
+
+        // failure surfaces when waiting for the copy.
+        WorkflowJob copier = jenkinsRule.createWorkflow(
+            "copier",
+            "def copy = copyArtifactsAsync(projectName: 'nobuild', wait: false);"
+            + "echo 'started';"
+            + "waitForCopyArtifacts(copy);"
+        );
+        WorkflowRun b = jenkinsRule.assertBuildStatus(Result.FAILURE, copier.scheduleBuild2(0));
+        jenkinsRule.assertLogContains("started", b);
+        jenkinsRule.assertLogContains(Messages.CopyArtifact_MissingBuild("nobuild"), b);
+
+        // optional copies don't fail.
+        copier.setDefinition(new CpsFlowDefinition(
+            "node {"
+            + "def copy = copyArtifactsAsync(projectName: 'nobuild', optional: true, wait: false);"
+            + "waitForCopyArtifacts(copy);"
+            + "}",
+            true
+        ));
+        jenkinsRule.assertBuildStatusSuccess(copier.scheduleBuild2(0));
+
+        // can wait only once.
+        copier.setDefinition(new CpsFlowDefinition(
+            "node {"
+            + "def copy = copyArtifactsAsync(projectName: 'nobuild', optional: true, wait: false);"
+            + "waitForCopyArtifacts(copy);"
+            + "waitForCopyArtifacts(copy);"
+            + "}",
+            true
+        ));
+        jenkinsRule.assertBuildStatus(Result.FAILURE, copier.scheduleBuild2(0));
+    }
 }